@@ -0,0 +1,171 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger;
+
+/**
+ * A precomputed description of a log statement's location: class, method, file and line.
+ * <p>
+ * Passing a call site to {@link Logger#log(CallSite, LogLevel, String)} replaces the
+ * stack walk made for every entry with a field read. The {@link CallerInfo} and the
+ * one-frame {@link StackTraceInfo} of the entries are created once per call site and shared.
+ * <p>
+ * Call sites are meant to be {@code static final} constants, one per log statement:
+ * <pre>
+ * private static final CallSite SAVE_FAILED = CallSite.lazy();
+ * ...
+ * logger.log(SAVE_FAILED, LogLevel.ERROR, "Cannot save " + name);
+ * </pre>
+ * A {@link #lazy()} call site is resolved by a single stack walk the first time an enabled
+ * entry is logged with it, and records that statement. Sharing one between several statements
+ * therefore reports the first of them. {@link #of(String, String, String, int)} creates
+ * call sites that are resolved from the start, e.g. by generated code.
+ */
+public final class CallSite {
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private volatile Resolution resolution;
+
+    private CallSite(StackTraceElement element) {
+        if (element != null) {
+            this.resolution = new Resolution(this, element);
+        }
+    }
+
+    /**
+     * Creates a call site that is resolved when it is first logged with.
+     *
+     * @return An unresolved call site.
+     */
+    public static CallSite lazy() {
+        return new CallSite(null);
+    }
+
+    /**
+     * Creates a call site for the statement calling this method, with one stack walk.
+     *
+     * @return A resolved call site.
+     */
+    public static CallSite here() {
+        return new CallSite(STACK_WALKER.walk(frames -> frames
+                .skip(1)
+                .findFirst()
+                .map(StackWalker.StackFrame::toStackTraceElement)
+                .orElse(null)));
+    }
+
+    /**
+     * Creates a resolved call site.
+     *
+     * @param className  The fully qualified class name.
+     * @param methodName The method name.
+     * @param fileName   The source file name, may be {@code null}.
+     * @param lineNumber The line number, negative if unknown.
+     * @return A resolved call site.
+     */
+    public static CallSite of(String className, String methodName, String fileName, int lineNumber) {
+        return new CallSite(new StackTraceElement(className, methodName, fileName, lineNumber));
+    }
+
+    /**
+     * Creates a resolved call site from a stack trace element.
+     *
+     * @param element The stack trace element.
+     * @return A resolved call site.
+     */
+    public static CallSite of(StackTraceElement element) {
+        if (element == null) {
+            throw new IllegalArgumentException("Stack trace element must not be null.");
+        }
+        return new CallSite(element);
+    }
+
+    /**
+     * Checks whether the location of this call site is known.
+     *
+     * @return {@code true} if the call site is resolved.
+     */
+    public boolean isResolved() {
+        return resolution != null;
+    }
+
+    /**
+     * Gets the location as a stack trace element.
+     *
+     * @return The stack trace element, or {@code null} if the call site is not resolved yet.
+     */
+    public StackTraceElement getStackTraceElement() {
+        Resolution resolved = resolution;
+        return resolved != null ? resolved.element : null;
+    }
+
+    /**
+     * Gets the caller information shared by all entries logged with this call site.
+     *
+     * @return The caller information, or {@code null} if the call site is not resolved yet.
+     */
+    public CallerInfo getCallerInfo() {
+        Resolution resolved = resolution;
+        return resolved != null ? resolved.callerInfo : null;
+    }
+
+    /**
+     * Gets the one-frame stack trace shared by all entries logged with this call site.
+     *
+     * @return The stack trace, or {@code null} if the call site is not resolved yet.
+     */
+    StackTraceInfo getStackTraceInfo() {
+        Resolution resolved = resolution;
+        return resolved != null ? resolved.stackTraceInfo : null;
+    }
+
+    /**
+     * Resolves this call site unless it already is. The first resolution wins.
+     *
+     * @param element The location found by a stack walk, may be {@code null}.
+     */
+    synchronized void resolve(StackTraceElement element) {
+        if (resolution == null && element != null) {
+            resolution = new Resolution(this, element);
+        }
+    }
+
+    @Override
+    public String toString() {
+        Resolution resolved = resolution;
+        return resolved != null ? resolved.element.toString() : "<unresolved call site>";
+    }
+
+    private static final class Resolution {
+        final StackTraceElement element;
+        final CallerInfo callerInfo;
+        final StackTraceInfo stackTraceInfo;
+
+        Resolution(CallSite site, StackTraceElement element) {
+            this.element = element;
+            this.callerInfo = new CallerInfo(site, element);
+            this.stackTraceInfo = new StackTraceInfo(new StackTraceElement[] { element });
+        }
+    }
+}
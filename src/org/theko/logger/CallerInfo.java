@@ -36,7 +36,10 @@ public class CallerInfo {
      */
     protected StackTraceElement element;
 
-    
+    /**
+     * The {@link CallSite} backing this caller information, or {@code null} if it was found by a stack walk.
+     */
+    protected CallSite callSite;
 
     /**
      * Constructs a {@link CallerInfo} instance with the provided {@link StackTraceElement}.
@@ -47,6 +50,17 @@ public class CallerInfo {
         this.element = element;
     }
 
+    /**
+     * Constructs a {@link CallerInfo} instance backed by a {@link CallSite}.
+     * 
+     * @param callSite The call site.
+     * @param element  The location of the call site.
+     */
+    CallerInfo(CallSite callSite, StackTraceElement element) {
+        this.element = element;
+        this.callSite = callSite;
+    }
+
     /**
      * Gets the name of the class where the method is located.
      * 
@@ -128,6 +142,15 @@ public class CallerInfo {
         return element;
     }
 
+    /**
+     * Gets the {@link CallSite} this caller information was created from.
+     * 
+     * @return The call site, or {@code null} if the caller was found by a stack walk.
+     */
+    public CallSite getCallSite() {
+        return callSite;
+    }
+
     /**
      * Returns a string representation of the stack trace element.
      * 
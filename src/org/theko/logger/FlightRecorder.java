@@ -0,0 +1,213 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An in-memory ring of the most recent entries that were not written, dumped when an
+ * entry at or above a trigger level is logged.
+ * <p>
+ * Attached to a {@link Logger} with {@link Logger#setFlightRecorder(FlightRecorder)}, it
+ * receives the entries below the logger's level or below the output's preferred level. Such
+ * entries are kept unformatted, without caller lookup unless a resolved {@link CallSite} is
+ * given, and without any I/O. When an entry reaches the trigger level, the recorded entries
+ * are written to the sinks in order, bypassing the output level filter, right before it.
+ * This keeps DEBUG context available for errors while the output stays at INFO.
+ * <p>
+ * In {@link Scope#GLOBAL} scope all threads share one lock-free ring and a dump contains
+ * the latest entries of every thread. In {@link Scope#THREAD} scope each thread has its own
+ * ring and a dump contains only the entries of the thread logging the trigger entry.
+ */
+public class FlightRecorder {
+    /**
+     * Which entries a dump contains.
+     */
+    public enum Scope {
+        /**
+         * The latest entries of all threads.
+         */
+        GLOBAL,
+
+        /**
+         * The latest entries of the thread logging the trigger entry.
+         */
+        THREAD
+    }
+
+    private final int capacity;
+    private final LogLevel triggerLevel;
+    private final Scope scope;
+
+    // Global ring: a slot is valid when its sequence matches the expected one before and after reading it
+    private final AtomicReferenceArray<LogEntry> entries;
+    private final AtomicLongArray sequences;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong drained = new AtomicLong();
+
+    private final ThreadLocal<ThreadRing> threadRings;
+
+    /**
+     * Creates a flight recorder.
+     *
+     * @param capacity     The number of entries kept, rounded up to a power of two.
+     * @param triggerLevel The level at which recorded entries are dumped.
+     * @param scope        Whether the ring is shared by all threads or kept per thread.
+     */
+    public FlightRecorder(int capacity, LogLevel triggerLevel, Scope scope) {
+        if (capacity <= 0 || capacity > (1 << 24)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^24.");
+        }
+        if (triggerLevel == null || scope == null) {
+            throw new IllegalArgumentException("Trigger level and scope must not be null.");
+        }
+        int rounded = Integer.highestOneBit(capacity);
+        this.capacity = rounded < capacity ? rounded << 1 : rounded;
+        this.triggerLevel = triggerLevel;
+        this.scope = scope;
+        if (scope == Scope.GLOBAL) {
+            this.entries = new AtomicReferenceArray<>(this.capacity);
+            this.sequences = new AtomicLongArray(this.capacity);
+            for (int i = 0; i < this.capacity; i++) {
+                sequences.set(i, -1);
+            }
+            this.threadRings = null;
+        } else {
+            this.entries = null;
+            this.sequences = null;
+            this.threadRings = ThreadLocal.withInitial(() -> new ThreadRing(this.capacity));
+        }
+    }
+
+    /**
+     * Gets the number of entries kept.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the level at which recorded entries are dumped.
+     */
+    public LogLevel getTriggerLevel() {
+        return triggerLevel;
+    }
+
+    /**
+     * Gets the scope of the recorded entries.
+     */
+    public Scope getScope() {
+        return scope;
+    }
+
+    /**
+     * Records an entry, overwriting the oldest one when the ring is full.
+     *
+     * @param log The entry to record.
+     */
+    public void record(LogEntry log) {
+        if (scope == Scope.THREAD) {
+            threadRings.get().add(log);
+            return;
+        }
+        long sequence = written.getAndIncrement();
+        int slot = (int) sequence & (capacity - 1);
+        sequences.set(slot, -1); // Invalidate while the slot is replaced
+        entries.set(slot, log);
+        sequences.set(slot, sequence);
+    }
+
+    /**
+     * Removes and returns the recorded entries, oldest first.
+     * Each entry is returned by at most one drain. A drain stops before an entry that
+     * another thread is still recording, which is returned by the next drain with the
+     * entries after it.
+     *
+     * @return The recorded entries within the scope of the calling thread.
+     */
+    public List<LogEntry> drain() {
+        if (scope == Scope.THREAD) {
+            return threadRings.get().drain();
+        }
+        while (true) {
+            long start = drained.get();
+            long end = written.get();
+            List<LogEntry> result = new ArrayList<>((int) Math.min(Math.max(end - start, 0), capacity));
+            long sequence = Math.max(start, end - capacity);
+            for (; sequence < end; sequence++) {
+                int slot = (int) sequence & (capacity - 1);
+                // Seqlock read: the entry belongs to the sequence only if the slot published
+                // that sequence both before and after it was read
+                long published = sequences.get(slot);
+                if (published < sequence) {
+                    break; // Still being written, it and the entries after it are left to the next drain
+                }
+                if (published > sequence) {
+                    continue; // Already overwritten by a newer entry
+                }
+                LogEntry log = entries.get(slot);
+                if (sequences.get(slot) == sequence && log != null) {
+                    result.add(log);
+                }
+            }
+            if (sequence <= start || drained.compareAndSet(start, sequence)) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Ring of a single thread, only accessed by that thread.
+     */
+    private static final class ThreadRing {
+        private final LogEntry[] entries;
+        private long written;
+        private long drained;
+
+        ThreadRing(int capacity) {
+            this.entries = new LogEntry[capacity];
+        }
+
+        void add(LogEntry log) {
+            entries[(int) written++ & (entries.length - 1)] = log;
+        }
+
+        List<LogEntry> drain() {
+            long start = Math.max(drained, written - entries.length);
+            List<LogEntry> result = new ArrayList<>((int) (written - start));
+            for (long sequence = start; sequence < written; sequence++) {
+                int slot = (int) sequence & (entries.length - 1);
+                result.add(entries[slot]);
+                entries[slot] = null;
+            }
+            drained = written;
+            return result;
+        }
+    }
+}
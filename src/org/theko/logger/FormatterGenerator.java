@@ -0,0 +1,273 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates formatter classes for compiled patterns.
+ * <p>
+ * A generated formatter is a hidden class in this package whose {@code append} method
+ * has one straight-line call per segment instead of a loop over segments: literals are
+ * string constants, placeholders are static calls to {@link LogPattern}, and other
+ * segments, such as times, are kept in final fields, each called from its own call site.
+ * Every call site has a single target, so the JIT can inline the field reads from
+ * {@link LogEntry} and {@link CallerInfo} into one method.
+ * <p>
+ * The class file is written directly; it has no branches, so it needs no stack map frames.
+ */
+final class FormatterGenerator {
+    private static final String CLASS_NAME = "org/theko/logger/LogPattern$Generated";
+    private static final String PATTERN = "org/theko/logger/LogPattern";
+    private static final String SEGMENT = "org/theko/logger/LogPattern$Segment";
+    private static final String STRING_BUILDER = "java/lang/StringBuilder";
+    private static final String APPEND = "(Lorg/theko/logger/LogEntry;Ljava/lang/StringBuilder;)V";
+    private static final int MAX_CODE_LENGTH = 65_535;
+
+    // Private constructor to prevent instantiation of this utility class.
+    private FormatterGenerator() {
+        throw new IllegalAccessError("Cannot make instance of FormatterGenerator!");
+    }
+
+    /**
+     * Generates a formatter for the fields of a compiled pattern.
+     *
+     * @param fields The fields of the pattern.
+     * @return The formatter, or {@code null} if its class cannot be generated or defined.
+     */
+    static LogPattern.Segment generate(LogPattern.Field[] fields) {
+        List<LogPattern.Segment> delegates = new ArrayList<>();
+        for (LogPattern.Field field : fields) {
+            if (field.literal == null && field.placeholder == null) {
+                delegates.add(field.segment);
+            }
+        }
+        try {
+            byte[] bytes = new ClassFile().write(fields, delegates.size());
+            Class<?> generated = MethodHandles.lookup().defineHiddenClass(bytes, true).lookupClass();
+            return (LogPattern.Segment) generated.getConstructor(LogPattern.Segment[].class)
+                    .newInstance((Object) delegates.toArray(new LogPattern.Segment[0]));
+        } catch (IOException | ReflectiveOperationException | LinkageError | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the class file of a formatter. Segments that are neither literals nor
+     * placeholders are stored in fields {@code s0}, {@code s1}, ... by the constructor,
+     * which takes them as an array.
+     */
+    private static final class ClassFile {
+        private static final int ALOAD_0 = 0x2a;
+        private static final int ALOAD_1 = 0x2b;
+        private static final int ALOAD_2 = 0x2c;
+        private static final int SIPUSH = 0x11;
+        private static final int LDC_W = 0x13;
+        private static final int AALOAD = 0x32;
+        private static final int POP = 0x57;
+        private static final int RETURN = 0xb1;
+        private static final int GETFIELD = 0xb4;
+        private static final int PUTFIELD = 0xb5;
+        private static final int INVOKEVIRTUAL = 0xb6;
+        private static final int INVOKESPECIAL = 0xb7;
+        private static final int INVOKESTATIC = 0xb8;
+        private static final int INVOKEINTERFACE = 0xb9;
+
+        private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+        private final DataOutputStream pool = new DataOutputStream(poolBytes);
+        private final Map<String, Integer> poolIndexes = new HashMap<>();
+        private int poolSize = 1;
+
+        byte[] write(LogPattern.Field[] fields, int delegates) throws IOException {
+            int thisClass = classEntry(CLASS_NAME);
+            int superClass = classEntry("java/lang/Object");
+            int segmentClass = classEntry(SEGMENT);
+            int segmentType = utf8("L" + SEGMENT + ";");
+
+            // Constructor: s0 = segments[0]; s1 = segments[1]; ...
+            ByteArrayOutputStream init = new ByteArrayOutputStream();
+            DataOutputStream code = new DataOutputStream(init);
+            code.writeByte(ALOAD_0);
+            code.writeByte(INVOKESPECIAL);
+            code.writeShort(member(10, superClass, "<init>", "()V"));
+            for (int i = 0; i < delegates; i++) {
+                code.writeByte(ALOAD_0);
+                code.writeByte(ALOAD_1);
+                code.writeByte(SIPUSH);
+                code.writeShort(i);
+                code.writeByte(AALOAD);
+                code.writeByte(PUTFIELD);
+                code.writeShort(member(9, thisClass, "s" + i, "L" + SEGMENT + ";"));
+            }
+            code.writeByte(RETURN);
+
+            // append(log, out): one straight-line step per field
+            ByteArrayOutputStream append = new ByteArrayOutputStream();
+            code = new DataOutputStream(append);
+            int delegate = 0;
+            for (LogPattern.Field field : fields) {
+                if (field.literal != null) {
+                    code.writeByte(ALOAD_2);
+                    code.writeByte(LDC_W);
+                    code.writeShort(string(field.literal));
+                    code.writeByte(INVOKEVIRTUAL);
+                    code.writeShort(member(10, classEntry(STRING_BUILDER), "append", "(Ljava/lang/String;)L" + STRING_BUILDER + ";"));
+                    code.writeByte(POP);
+                } else if (field.placeholder != null) {
+                    code.writeByte(ALOAD_1);
+                    code.writeByte(ALOAD_2);
+                    code.writeByte(INVOKESTATIC);
+                    code.writeShort(member(10, classEntry(PATTERN), field.placeholder.method, APPEND));
+                } else {
+                    code.writeByte(ALOAD_0);
+                    code.writeByte(GETFIELD);
+                    code.writeShort(member(9, thisClass, "s" + delegate++, "L" + SEGMENT + ";"));
+                    code.writeByte(ALOAD_1);
+                    code.writeByte(ALOAD_2);
+                    code.writeByte(INVOKEINTERFACE);
+                    code.writeShort(member(11, segmentClass, "append", APPEND));
+                    code.writeByte(3);
+                    code.writeByte(0);
+                }
+            }
+            code.writeByte(RETURN);
+            if (init.size() > MAX_CODE_LENGTH || append.size() > MAX_CODE_LENGTH) {
+                throw new IllegalStateException("Pattern is too long to generate a formatter");
+            }
+
+            int initName = utf8("<init>");
+            int initType = utf8("([L" + SEGMENT + ";)V");
+            int appendName = utf8("append");
+            int appendType = utf8(APPEND);
+            int codeName = utf8("Code");
+            int[] fieldNames = new int[delegates];
+            for (int i = 0; i < delegates; i++) {
+                fieldNames[i] = utf8("s" + i);
+            }
+            if (poolSize > 0xffff) {
+                throw new IllegalStateException("Pattern is too long to generate a formatter");
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xcafebabe);
+            out.writeShort(0);
+            out.writeShort(52);
+            out.writeShort(poolSize);
+            poolBytes.writeTo(out);
+            out.writeShort(0x0031); // public final super
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(segmentClass);
+
+            out.writeShort(delegates);
+            for (int i = 0; i < delegates; i++) {
+                out.writeShort(0x0012); // private final
+                out.writeShort(fieldNames[i]);
+                out.writeShort(segmentType);
+                out.writeShort(0);
+            }
+
+            out.writeShort(2);
+            writeMethod(out, initName, initType, codeName, 3, 2, init);
+            writeMethod(out, appendName, appendType, codeName, 3, 3, append);
+            out.writeShort(0);
+            return bytes.toByteArray();
+        }
+
+        private static void writeMethod(DataOutputStream out, int name, int type, int codeName,
+                int maxStack, int maxLocals, ByteArrayOutputStream code) throws IOException {
+            out.writeShort(0x0001); // public
+            out.writeShort(name);
+            out.writeShort(type);
+            out.writeShort(1);
+            out.writeShort(codeName);
+            out.writeInt(12 + code.size());
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.size());
+            code.writeTo(out);
+            out.writeShort(0); // Exception table
+            out.writeShort(0); // Attributes
+        }
+
+        private int utf8(String value) throws IOException {
+            String key = "1|" + value;
+            Integer index = poolIndexes.get(key);
+            if (index == null) {
+                pool.writeByte(1);
+                pool.writeUTF(value);
+                index = add(key);
+            }
+            return index;
+        }
+
+        private int classEntry(String name) throws IOException {
+            return reference(7, utf8(name));
+        }
+
+        private int string(String value) throws IOException {
+            return reference(8, utf8(value));
+        }
+
+        /**
+         * Adds a field (tag 9), method (10) or interface method (11) reference.
+         */
+        private int member(int tag, int owner, String name, String type) throws IOException {
+            int nameAndType = reference(12, utf8(name), utf8(type));
+            return reference(tag, owner, nameAndType);
+        }
+
+        private int reference(int tag, int... indexes) throws IOException {
+            StringBuilder key = new StringBuilder().append(tag);
+            for (int index : indexes) {
+                key.append('|').append(index);
+            }
+            Integer index = poolIndexes.get(key.toString());
+            if (index == null) {
+                pool.writeByte(tag);
+                for (int i : indexes) {
+                    pool.writeShort(i);
+                }
+                index = add(key.toString());
+            }
+            return index;
+        }
+
+        private int add(String key) {
+            int index = poolSize++;
+            poolIndexes.put(key, index);
+            return index;
+        }
+    }
+}
@@ -26,26 +26,37 @@ package org.theko.logger;
 
 import java.util.List;
 
+import org.theko.logger.config.LoggerConfiguration;
+
 /**
  * A global logger wrapper that delegates to a shared static Logger instance.
  * Provides global logging access across the entire application.
+ * <p>
+ * The shared logger and its output are created on first use of a method that needs them,
+ * together with the startup configuration, so merely loading this class costs nothing.
  */
 public class GlobalLogger {
     /**
-     * A single static Logger instance shared across all GlobalLogger instances.
+     * Holder of the shared instances, initialized on first access by the JVM.
      */
-    protected static final Logger logger;
+    private static final class Holder {
+        /**
+         * A single static LoggerOutput instance shared across all GlobalLogger instances.
+         */
+        static final LoggerOutput loggerOutput;
 
-    /**
-     * A single static LoggerOutput instance shared across all GlobalLogger instances.
-     */
-    protected static final LoggerOutput loggerOutput;
+        /**
+         * A single static Logger instance shared across all GlobalLogger instances.
+         */
+        static final Logger logger;
 
-    // Static initializer to set up the shared logger instance
-    static {
-        loggerOutput = new LoggerOutput(LogLevel.INFO);
-        loggerOutput.addOutputStream(System.out);
-        logger = new Logger(loggerOutput, 2);
+        static {
+            loggerOutput = new LoggerOutput(LogLevel.INFO);
+            loggerOutput.addOutputStream(System.out);
+            logger = new Logger(loggerOutput, 2);
+
+            LoggerConfiguration.bootstrap(); // Applies the startup configuration file, if any
+        }
     }
 
     private GlobalLogger () {
@@ -59,19 +70,55 @@ public class GlobalLogger {
      * @param message The message to be logged.
      */
     public static void log(LogLevel level, String message) {
-        synchronized (logger) { // Ensure thread safety
-            logger.log(level, message);
+        synchronized (Holder.logger) { // Ensure thread safety
+            Holder.logger.log(level, message);
+        }
+    }
+
+    /**
+     * Logs a message with an attached throwable at the specified log level.
+     *
+     * @param level     The log level (DEBUG, INFO, WARN, etc.).
+     * @param message   The message to be logged.
+     * @param throwable The throwable to attach, may be {@code null}.
+     */
+    public static void log(LogLevel level, String message, Throwable throwable) {
+        synchronized (Holder.logger) { // Ensure thread safety
+            Holder.logger.log(level, message, throwable);
+        }
+    }
+
+    /**
+     * Logs a message at a precomputed call site, without walking the stack.
+     *
+     * @param site    The call site of the log statement, see {@link CallSite}.
+     * @param level   The log level (DEBUG, INFO, WARN, etc.).
+     * @param message The message to be logged.
+     */
+    public static void log(CallSite site, LogLevel level, String message) {
+        synchronized (Holder.logger) { // Ensure thread safety
+            Holder.logger.log(site, level, message);
         }
     }
 
+    /**
+     * Opens a scope for a unit of work on the current thread, see {@link Logger#openScope(long)}.
+     *
+     * @param thresholdMillis The latency in milliseconds above which the entries are emitted.
+     * @return The open scope, to be closed on the same thread.
+     */
+    public static LogScope openScope(long thresholdMillis) {
+        return Holder.logger.openScope(thresholdMillis);
+    }
+
     /**
      * Retrieves the last logged message.
      *
      * @return The last log information.
      */
     public static LogEntry getLastLog() {
-        synchronized (logger) {
-            return logger.getLastLog();
+        synchronized (Holder.logger) {
+            return Holder.logger.getLastLog();
         }
     }
 
@@ -81,8 +128,8 @@ public class GlobalLogger {
      * @return A list of all log information.
      */
     public static List<LogEntry> getAllLogs() {
-        synchronized (logger) {
-            return logger.getAllLogs();
+        synchronized (Holder.logger) {
+            return Holder.logger.getAllLogs();
         }
     }
 
@@ -92,8 +139,8 @@ public class GlobalLogger {
      * @return An array of all log information.
      */
     public static LogEntry[] getAllLogsArray() {
-        synchronized (logger) {
-            return logger.getAllLogsArray();
+        synchronized (Holder.logger) {
+            return Holder.logger.getAllLogsArray();
         }
     }
 
@@ -103,7 +150,7 @@ public class GlobalLogger {
      * @return The static LoggerOutput instance.
      */
     public static LoggerOutput getLoggerOutput() {
-        return loggerOutput;
+        return Holder.loggerOutput;
     }
 
     /**
@@ -112,6 +159,6 @@ public class GlobalLogger {
      * @return The static Logger instance.
      */
     public static Logger getLogger() {
-        return logger;
+        return Holder.logger;
     }
 }
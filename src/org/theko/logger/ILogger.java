@@ -40,6 +40,27 @@ public interface ILogger {
      */
     public void log(LogLevel level, String message);
 
+    /**
+     * Logs a message with an attached throwable at the specified log level.
+     * <p>
+     * By default the throwable is rendered with {@link ThrowableRenderer#DEFAULT} and
+     * appended to the message on the following lines. Implementations that keep the
+     * throwable, such as {@link Logger}, render it only when an output needs it.
+     *
+     * @param level     The severity level of the log (e.g., DEBUG, INFO, WARN, ERROR).
+     * @param message   The log message to record.
+     * @param throwable The throwable to attach, may be {@code null}.
+     */
+    public default void log(LogLevel level, String message, Throwable throwable) {
+        if (throwable == null) {
+            log(level, message);
+            return;
+        }
+        String rendered = ThrowableRenderer.DEFAULT.render(throwable);
+        // The rendered text ends with a line feed, which the entry adds itself
+        log(level, message + '\n' + rendered.substring(0, rendered.length() - 1));
+    }
+
     /**
      * Retrieves the last logged message.
      *
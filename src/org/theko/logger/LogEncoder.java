@@ -0,0 +1,178 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Renders log entries directly into a reusable UTF-8 {@link ByteBuffer}.
+ * <p>
+ * The entry is formatted into a reused {@link StringBuilder} and encoded exactly once:
+ * pure ASCII text is copied byte by byte, and only text containing other characters
+ * goes through a {@link CharsetEncoder}. The buffer is heap-backed, so it can be written
+ * to channels as is and to {@link java.io.OutputStream}s through its backing array.
+ * Batches are encoded into a reusable array of buffers, one per entry, ready for
+ * gathering writes without copying the entries into one consolidated buffer.
+ * An encoder is not thread-safe; use one per thread.
+ */
+public class LogEncoder {
+    private static final int INITIAL_CAPACITY = 512;
+
+    /**
+     * Buffers grown beyond this size are released after use, so one huge entry
+     * does not pin a large buffer forever.
+     */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private final StringBuilder chars = new StringBuilder(INITIAL_CAPACITY);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+    private ByteBuffer[] batchBuffers = new ByteBuffer[0];
+
+    /**
+     * Formats a log entry followed by a line feed and its attached throwable, if any.
+     *
+     * @param log      The log entry to encode.
+     * @param pattern  The pattern used to format the entry.
+     * @param renderer The renderer used for an attached throwable.
+     * @return The encoded bytes between position 0 and the limit. Valid until the next call.
+     */
+    public ByteBuffer encode(LogEntry log, LogPattern pattern, ThrowableRenderer renderer) {
+        buffer = encode(render(log, pattern, renderer), buffer);
+        return buffer;
+    }
+
+    /**
+     * Encodes a batch of log entries, each into its own reusable buffer.
+     *
+     * @param logs     The log entries to encode.
+     * @param pattern  The pattern used to format the entries.
+     * @param renderer The renderer used for attached throwables.
+     * @return An array whose first {@code logs.size()} buffers hold the encoded entries
+     *         between position 0 and their limits. Valid until the next call.
+     */
+    public ByteBuffer[] encodeBatch(List<LogEntry> logs, LogPattern pattern, ThrowableRenderer renderer) {
+        int size = logs.size();
+        if (batchBuffers.length < size) {
+            int previous = batchBuffers.length;
+            batchBuffers = Arrays.copyOf(batchBuffers, Math.max(size, previous * 2));
+            for (int i = previous; i < batchBuffers.length; i++) {
+                batchBuffers[i] = ByteBuffer.allocate(INITIAL_CAPACITY);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            batchBuffers[i] = encode(render(logs.get(i), pattern, renderer), batchBuffers[i]);
+        }
+        return batchBuffers;
+    }
+
+    private CharSequence render(LogEntry log, LogPattern pattern, ThrowableRenderer renderer) {
+        if (chars.capacity() > MAX_RETAINED_CAPACITY) {
+            chars.setLength(0);
+            chars.trimToSize();
+        }
+        chars.setLength(0);
+        pattern.format(log, chars);
+        chars.append('\n');
+        if (log.throwable != null) {
+            chars.append(log.getThrowableText(renderer));
+        }
+        return chars;
+    }
+
+    /**
+     * Encodes characters into the reusable buffer.
+     *
+     * @param text The characters to encode.
+     * @return The encoded bytes between position 0 and the limit. Valid until the next call.
+     */
+    public ByteBuffer encode(CharSequence text) {
+        buffer = encode(text, buffer);
+        return buffer;
+    }
+
+    private ByteBuffer encode(CharSequence text, ByteBuffer target) {
+        int length = text.length();
+        if (target.capacity() > MAX_RETAINED_CAPACITY && length < INITIAL_CAPACITY) {
+            target = ByteBuffer.allocate(INITIAL_CAPACITY);
+        }
+        if (target.capacity() < length) {
+            target = ByteBuffer.allocate(length);
+        }
+
+        // ASCII fast path, one byte per char
+        byte[] bytes = target.array();
+        int i = 0;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            bytes[i] = (byte) c;
+        }
+        target.clear();
+        target.position(i);
+        if (i < length) {
+            target = encodeSlow(text, i, target);
+        }
+        target.flip();
+        return target;
+    }
+
+    private ByteBuffer encodeSlow(CharSequence text, int from, ByteBuffer target) {
+        CharBuffer in = CharBuffer.wrap(text, from, text.length());
+        encoder.reset();
+        CoderResult result;
+        do {
+            result = encoder.encode(in, target, true);
+            if (result.isOverflow()) {
+                target = grow(target, in.remaining());
+            }
+        } while (result.isOverflow());
+        do {
+            result = encoder.flush(target);
+            if (result.isOverflow()) {
+                target = grow(target, 0);
+            }
+        } while (result.isOverflow());
+        return target;
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int remainingChars) {
+        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() + Math.max(16, remainingChars * 3));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+}
@@ -66,6 +66,25 @@ public class LogEntry {
      */
     protected String threadName;
 
+    /**
+     * The probability with which the log was sampled, 1 if it was not sampled.
+     */
+    protected double sampleRate = 1.0;
+
+    /**
+     * The throwable attached to the log, or {@code null}.
+     */
+    protected Throwable throwable;
+
+    /**
+     * The name of the logger that emitted the log, or {@code null} for standalone loggers.
+     */
+    protected String loggerName;
+
+    long enqueuedNanos;                    // Time the log entered an asynchronous queue, 0 if not recorded
+    private ThrowableRenderer renderedBy;  // Renderer of the cached throwable text
+    private String renderedThrowable;      // Throwable text, rendered on first use
+
     /**
      * Constructs a log entry with the provided details.
      *
@@ -89,6 +108,22 @@ public class LogEntry {
         this.stackTrace = stackTrace;
     }
 
+    /**
+     * Constructs a log entry with the provided details and an attached throwable.
+     *
+     * @param level       The severity level of the log.
+     * @param message     The log message.
+     * @param time        The timestamp when the log was created.
+     * @param threadName  The name of the thread where the log was created.
+     * @param caller      Information about the caller (method/class).
+     * @param stackTrace  Stack trace information for the log.
+     * @param throwable   The throwable attached to the log, may be {@code null}.
+     */
+    public LogEntry(LogLevel level, String message, long time, String threadName, CallerInfo caller, StackTraceInfo stackTrace, Throwable throwable) {
+        this(level, message, time, threadName, caller, stackTrace);
+        this.throwable = throwable;
+    }
+
     /**
      * Writes the log information to the specified {@link OutputStream}.
      *
@@ -144,6 +179,36 @@ public class LogEntry {
         return stackTrace;
     }
 
+    /**
+     * Returns the throwable attached to the log.
+     *
+     * @return The throwable, or {@code null} if none is attached.
+     */
+    public Throwable getThrowable() {
+        return throwable;
+    }
+
+    /**
+     * Returns the attached throwable rendered by the specified renderer.
+     * The text is rendered on first use and cached, so multiple outputs
+     * sharing a renderer render it only once.
+     *
+     * @param renderer The renderer to use.
+     * @return The rendered throwable, or {@code null} if none is attached.
+     */
+    public String getThrowableText(ThrowableRenderer renderer) {
+        if (throwable == null) {
+            return null;
+        }
+        synchronized (this) {
+            if (renderedBy != renderer) {
+                renderedThrowable = renderer.render(throwable);
+                renderedBy = renderer;
+            }
+            return renderedThrowable;
+        }
+    }
+
     /**
      * Returns the name of the thread where the log was created.
      *
@@ -162,6 +227,25 @@ public class LogEntry {
         this.threadName = threadName;
     }
 
+    /**
+     * Returns the name of the logger that emitted the log.
+     *
+     * @return The logger name, or {@code null} for standalone loggers.
+     */
+    public String getLoggerName() {
+        return loggerName;
+    }
+
+    /**
+     * Returns the probability with which this log was kept by sampling.
+     * Counts of sampled logs can be re-weighted by {@code 1 / sampleRate}.
+     *
+     * @return The sample rate in range (0, 1], 1 if the log was not sampled.
+     */
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
     /**
      * Formats the log entry into a readable string representation using the
      * default log pattern.
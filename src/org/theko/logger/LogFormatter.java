@@ -24,12 +24,7 @@
 
 package org.theko.logger;
 
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
-import java.util.Date;
-import java.util.TimeZone;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * A utility class for formatting log entries into human-readable strings based on customizable patterns.
@@ -51,7 +46,7 @@ public class LogFormatter {
     /**
      * The start time of the program to calculate the elapsed time since the application started.
      */
-    private static final long START_TIME = System.currentTimeMillis();
+    static final long START_TIME = System.currentTimeMillis();
 
     /**
      * A minimal log pattern for concise logging.
@@ -93,6 +88,21 @@ public class LogFormatter {
      * "[2024-12-19 12:34:56:789, UTC] DEBUG | [Thread: main] | [File: MyClass.java, Line: 42] | [MyClass.myMethod] > Debugging started."
      */
     public static final String DETAILED_INFO = "[-time<yyyy-MM-dd HH:mm:ss:SSS, UTC>] -type | [Thread: -thread] | [File: -file, Line: -line] | [-class.-method] > -message";
+
+    /**
+     * The default pattern of a {@link LoggerOutput}.
+     * <p>
+     * Format includes:
+     * - Timestamp in "HH:mm:ss:SSS" format (UTC).
+     * - Log type (e.g., DEBUG, INFO).
+     * - Class and method from where the log entry originated.
+     * - Log message.
+     * </p>
+     * Example output: "[12:34:56:789] INFO | [MyClass.myMethod] > Operation completed."
+     */
+    public static final String DEFAULT_OUTPUT = "[-time<HH:mm:ss:SSS, UTC>] -type | [-class.-method] > -message";
+
+    private static volatile boolean codeGeneration = true;
     
     // Private constructor to prevent instantiation of this utility class.
     private LogFormatter () {
@@ -103,8 +113,16 @@ public class LogFormatter {
      * Formats a log entry according to a specified pattern.
      * <p>
      * The pattern can contain placeholders like <code>-time</code>, <code>-type</code>, <code>-message</code>, 
-     * <code>-class</code>, <code>-method()</code>, <code>-module</code>, and <code>-native<onTrue, onFalse></code> 
+     * <code>-class</code>, <code>-method()</code>, <code>-module</code>, <code>-rate</code> (the sample rate),
+     * and <code>-native<onTrue, onFalse></code> 
      * which will be replaced by relevant information from the provided log entry.
+     * The pattern is compiled once and cached, see {@link LogPattern}.
+     * <p>
+     * <code>-time&lt;pattern, zone&gt;</code> takes a {@link java.text.SimpleDateFormat} pattern and a
+     * time zone ID, or {@code START} for the time elapsed since startup. Time patterns are
+     * formatted with {@link java.time.format.DateTimeFormatter}, but letters keep their
+     * {@code SimpleDateFormat} meaning: {@code S} is the millisecond, {@code u} the day number
+     * of the week and {@code F} the day of the week in the month, and {@code [ ] { } #} are text.
      * 
      * @param log     The log entry to be formatted.
      * @param pattern The pattern to use for formatting.
@@ -115,84 +133,30 @@ public class LogFormatter {
         if (log == null || pattern == null || pattern.isEmpty()) {
             throw new IllegalArgumentException("LogEntry and pattern must not be null or empty");
         }
+        return LogPattern.compile(pattern).format(log);
+    }
 
-        String formatted = pattern;
-
-        // Replace -time<TIME_PATTERN, TIMEZONE>
-        Pattern timePattern = Pattern.compile("-time<([^,>]+), ([^>]+)>");
-        Matcher timeMatcher = timePattern.matcher(formatted);
-        StringBuffer timeBuffer = new StringBuffer();
-
-        while (timeMatcher.find()) {
-            String timePatternStr = timeMatcher.group(1);
-            String timeZoneId = timeMatcher.group(2);
-            SimpleDateFormat dateFormat = new SimpleDateFormat(timePatternStr);
-
-            String replacement;
-            if ("START".equalsIgnoreCase(timeZoneId)) {
-                long elapsedTime = System.currentTimeMillis() - START_TIME;
-                replacement = formatElapsedTime(elapsedTime, timePatternStr);
-            } else {
-                dateFormat.setTimeZone(TimeZone.getTimeZone(timeZoneId));
-                replacement = dateFormat.format(new Date(log.getTime()));
-            }
-
-            timeMatcher.appendReplacement(timeBuffer, replacement);
-        }
-        timeMatcher.appendTail(timeBuffer);
-        formatted = timeBuffer.toString();
-
-        // Replace -type
-        formatted = formatted.replace("-type", log.getLevel().toString());
-
-        // Replace -message
-        formatted = formatted.replace("-message", log.getMessage());
-
-        // Replace -thread
-        if (log.getThreadName() != null && !log.getThreadName().isEmpty()) {
-            formatted = formatted.replace("-thread", log.getThreadName());
-        } else {
-            formatted = formatted.replace("-thread", "<unknown thread>");
-        }
-
-        // Replace -class, -method, -module, -file, -line
-        if (log.getCallerInfo() != null) {
-            formatted = formatted.replace("-class", log.getCallerInfo().getClassName());
-            formatted = formatted.replace("-method", log.getCallerInfo().getMethodName());
-            formatted = formatted.replace("-file", log.getCallerInfo().getFileName());
-            formatted = formatted.replace("-line", String.valueOf(log.getCallerInfo().getLineNumber()));
-
-            String moduleName = log.getCallerInfo().getModuleName();
-            if (moduleName != null && !moduleName.isEmpty()) {
-                formatted = formatted.replace("-module", moduleName);
-            } else {
-                formatted = formatted.replace("-module", "<unknown module>");
-            }
-        } else {
-            formatted = formatted.replace("-class", "<unknown class>");
-            formatted = formatted.replace("-method", "<unknown method>");
-            formatted = formatted.replace("-module", "<unknown module>");
-            formatted = formatted.replace("-file", "<unknown file>");
-            formatted = formatted.replace("-line", "<unknown line>");
-        }
-
-        // Replace -native<onTrue, onFalse>
-        Pattern nativePattern = Pattern.compile("-native<([^,>]+), ([^>]+)>");
-        Matcher nativeMatcher = nativePattern.matcher(formatted);
-        StringBuffer nativeBuffer = new StringBuffer();
-
-        while (nativeMatcher.find()) {
-            String onTrue = nativeMatcher.group(1);
-            String onFalse = nativeMatcher.group(2);
-            boolean isNative = log.getCallerInfo() != null && log.getCallerInfo().isNativeMethod();
-            String replacement = isNative ? onTrue : onFalse;
-
-            nativeMatcher.appendReplacement(nativeBuffer, replacement);
-        }
-        nativeMatcher.appendTail(nativeBuffer);
-        formatted = nativeBuffer.toString();
+    /**
+     * Enables or disables generated formatters.
+     * <p>
+     * When enabled, a compiled pattern that has formatted a number of entries defines a
+     * hidden class appending its segments in straight-line code, which the JIT can inline
+     * into a single method. When disabled, or when the class cannot be defined, patterns
+     * interpret their segments. Enabled by default.
+     *
+     * @param enabled {@code true} to use generated formatters.
+     */
+    public static void setCodeGenerationEnabled(boolean enabled) {
+        codeGeneration = enabled;
+    }
 
-        return formatted;
+    /**
+     * Checks whether generated formatters are enabled.
+     *
+     * @return {@code true} if generated formatters are enabled.
+     */
+    public static boolean isCodeGenerationEnabled() {
+        return codeGeneration;
     }
 
     /**
@@ -202,7 +166,7 @@ public class LogFormatter {
      * @param pattern     The pattern to format the elapsed time.
      * @return The formatted string representing the elapsed time.
      */
-    private static String formatElapsedTime(long elapsedTime, String pattern) {
+    static String formatElapsedTime(long elapsedTime, String pattern) {
         long hours = elapsedTime / 3600000;
         long minutes = (elapsedTime % 3600000) / 60000;
         long seconds = (elapsedTime % 60000) / 1000;
@@ -0,0 +1,745 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A log pattern compiled into a list of segments.
+ * <p>
+ * Compiling parses the placeholders described in {@link LogFormatter#format(LogEntry, String)}
+ * once, so formatting is a single pass appending literals and entry fields to a
+ * {@link StringBuilder}. Text inserted from an entry, such as the message, is never
+ * interpreted as a placeholder.
+ * <p>
+ * A compiled pattern can also {@link #parse(CharSequence) parse} formatted lines back
+ * into log entries, which is how log files are read.
+ * <p>
+ * Time placeholders in UTC made only of {@code yyyy}, {@code MM}, {@code dd}, {@code HH},
+ * {@code mm}, {@code ss} and {@code SSS} fields are formatted arithmetically; a
+ * {@link DateTimeFormatter} is created only for other time patterns and for parsing.
+ * The built-in patterns are compiled once into constants such as {@link #DEFAULT_INFO}.
+ * <p>
+ * A pattern that keeps being used generates a formatter class for itself, which appends
+ * its segments in straight-line code the JIT can inline, see {@link #isGenerated()}.
+ * If the class cannot be defined, the pattern keeps interpreting its segments.
+ */
+public class LogPattern {
+    /**
+     * Maximum number of cached compiled patterns. When exceeded, the cache is cleared.
+     */
+    private static final int MAX_CACHED_PATTERNS = 256;
+
+    /**
+     * Number of entries a pattern formats by interpretation before a formatter is generated for it.
+     */
+    private static final int GENERATION_THRESHOLD = 256;
+
+    private static final Segment UNAVAILABLE = (log, out) -> { };
+
+    private static final ConcurrentHashMap<String, LogPattern> cache = new ConcurrentHashMap<>();
+
+    /**
+     * The compiled {@link LogFormatter#MINIMAL_INFO} pattern.
+     */
+    public static final LogPattern MINIMAL_INFO = compile(LogFormatter.MINIMAL_INFO);
+
+    /**
+     * The compiled {@link LogFormatter#DEFAULT_INFO} pattern.
+     */
+    public static final LogPattern DEFAULT_INFO = compile(LogFormatter.DEFAULT_INFO);
+
+    /**
+     * The compiled {@link LogFormatter#DETAILED_INFO} pattern.
+     */
+    public static final LogPattern DETAILED_INFO = compile(LogFormatter.DETAILED_INFO);
+
+    /**
+     * The compiled {@link LogFormatter#DEFAULT_OUTPUT} pattern.
+     */
+    public static final LogPattern DEFAULT_OUTPUT = compile(LogFormatter.DEFAULT_OUTPUT);
+
+    private final String pattern;
+    private final Field[] fields;
+    private final Segment[] segments;
+    private volatile Segment generated;    // Generated formatter, UNAVAILABLE if it cannot be defined
+    private int uses;                      // Formatted entries before generating, counted without synchronization
+
+    private LogPattern(String pattern, Field[] fields) {
+        this.pattern = pattern;
+        this.fields = fields;
+        this.segments = new Segment[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            segments[i] = fields[i].segment;
+        }
+    }
+
+    /**
+     * Compiles a pattern, reusing a previously compiled instance when available.
+     *
+     * @param pattern The pattern to compile.
+     * @return The compiled pattern.
+     * @throws IllegalArgumentException If the pattern is null or empty.
+     */
+    public static LogPattern compile(String pattern) {
+        if (pattern == null || pattern.isEmpty()) {
+            throw new IllegalArgumentException("Pattern must not be null or empty");
+        }
+        LogPattern compiled = cache.get(pattern);
+        if (compiled == null) {
+            if (cache.size() >= MAX_CACHED_PATTERNS) {
+                cache.clear();
+            }
+            compiled = new LogPattern(pattern, compileFields(pattern));
+            cache.put(pattern, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Gets the source of this pattern.
+     *
+     * @return The pattern string.
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Formats a log entry.
+     *
+     * @param log The log entry to format.
+     * @return The formatted log string.
+     */
+    public String format(LogEntry log) {
+        StringBuilder out = new StringBuilder(128);
+        format(log, out);
+        return out.toString();
+    }
+
+    /**
+     * Formats a log entry, appending the result to a builder.
+     *
+     * @param log The log entry to format.
+     * @param out The builder to append to.
+     */
+    public void format(LogEntry log, StringBuilder out) {
+        if (LogFormatter.isCodeGenerationEnabled()) {
+            Segment formatter = generated;
+            if (formatter == null && ++uses >= GENERATION_THRESHOLD) {
+                formatter = generate();
+            }
+            if (formatter != null && formatter != UNAVAILABLE) {
+                formatter.append(log, out);
+                return;
+            }
+        }
+        for (Segment segment : segments) {
+            segment.append(log, out);
+        }
+    }
+
+    /**
+     * Checks whether this pattern formats entries with a generated formatter.
+     * A formatter is generated once the pattern has formatted a number of entries,
+     * if code generation is enabled, see {@link LogFormatter#setCodeGenerationEnabled(boolean)}.
+     *
+     * @return {@code true} if a generated formatter is in use.
+     */
+    public boolean isGenerated() {
+        Segment formatter = generated;
+        return formatter != null && formatter != UNAVAILABLE && LogFormatter.isCodeGenerationEnabled();
+    }
+
+    private synchronized Segment generate() {
+        if (generated == null) {
+            Segment formatter = FormatterGenerator.generate(fields);
+            generated = formatter != null ? formatter : UNAVAILABLE;
+        }
+        return generated;
+    }
+
+    /**
+     * Parses a line formatted with this pattern back into a log entry.
+     * <p>
+     * Literals must match exactly; each placeholder takes the text up to an occurrence
+     * of the next literal that lets the rest of the line match, or up to the end of the
+     * line if it is the last one, so a message spanning several lines is parsed as a whole. Fields the pattern does not contain,
+     * or that were written as {@code <unknown ...>}, are left empty. Elapsed times
+     * ({@code START}) cannot be mapped back and give a time of {@code 0}, and times
+     * without a date are taken on 1970-01-01.
+     * The parsed entry has no stack trace and no throwable.
+     *
+     * @param line The formatted line.
+     * @return The parsed entry, or {@code null} if the line does not match this pattern.
+     */
+    public LogEntry parse(CharSequence line) {
+        Parsed parsed = new Parsed();
+        return match(line.toString(), 0, 0, parsed) ? parsed.toEntry() : null;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    /**
+     * Matches the fields from the specified index on, backtracking over the possible
+     * ends of a placeholder value when its separator also occurs inside the value,
+     * e.g. the dots of {@code -class.-method}.
+     */
+    private boolean match(String text, int index, int position, Parsed parsed) {
+        if (index == fields.length) {
+            return position == text.length();
+        }
+        Field field = fields[index];
+        if (field.literal != null) {
+            return text.startsWith(field.literal, position)
+                    && match(text, index + 1, position + field.literal.length(), parsed);
+        }
+        if (field.choices != null) {
+            for (int i = 0; i < field.choices.length; i++) {
+                if (text.startsWith(field.choices[i], position)) {
+                    parsed.nativeMethod = i == 0;
+                    if (match(text, index + 1, position + field.choices[i].length(), parsed)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+        if (field.placeholder == Placeholder.TYPE) {
+            for (LogLevel level : LogLevel.values()) {
+                if (text.startsWith(level.name(), position)) {
+                    parsed.level = level;
+                    if (match(text, index + 1, position + level.name().length(), parsed)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        if (index + 1 == fields.length) {
+            return parsed.accept(field, text.substring(position));
+        }
+        String next = fields[index + 1].literal;
+        if (next == null) {
+            // Two placeholders without a separator cannot be told apart
+            return false;
+        }
+        for (int end = text.indexOf(next, position); end >= 0; end = text.indexOf(next, end + 1)) {
+            if (parsed.accept(field, text.substring(position, end)) && match(text, index + 1, end, parsed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Long parseTime(DateTimeFormatter formatter, String value) {
+        try {
+            TemporalAccessor parsed = formatter.parse(value);
+            if (parsed.isSupported(ChronoField.INSTANT_SECONDS)) {
+                return Instant.from(parsed).toEpochMilli();
+            }
+            LocalDate date = parsed.isSupported(ChronoField.EPOCH_DAY) ? LocalDate.from(parsed) : LocalDate.ofEpochDay(0);
+            LocalTime localTime = parsed.isSupported(ChronoField.NANO_OF_DAY) ? LocalTime.from(parsed) : LocalTime.MIDNIGHT;
+            return date.atTime(localTime).atZone(formatter.getZone()).toInstant().toEpochMilli();
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    private static String known(String value) {
+        return value.isEmpty() || value.startsWith("<unknown ") ? null : value;
+    }
+
+    /**
+     * Field values collected while a line is matched.
+     */
+    private static final class Parsed {
+        LogLevel level = LogLevel.INFO;
+        String message = "";
+        long time;
+        String threadName;
+        String className;
+        String methodName;
+        String moduleName;
+        String fileName;
+        int lineNumber = -1;
+        boolean nativeMethod;
+        double sampleRate = 1.0;
+
+        /**
+         * Stores a placeholder value.
+         *
+         * @return {@code false} if the value cannot belong to the placeholder.
+         */
+        boolean accept(Field field, String value) {
+            if (field.placeholder == null) {
+                if (field.time != null) {
+                    Long parsed = parseTime(field.time.formatter(), value);
+                    if (parsed == null) {
+                        return false;
+                    }
+                    time = parsed;
+                }
+                return true;
+            }
+            switch (field.placeholder) {
+                case RATE:
+                    try {
+                        sampleRate = Double.parseDouble(value);
+                        return true;
+                    } catch (NumberFormatException ex) {
+                        return false;
+                    }
+                case MESSAGE:
+                    message = value;
+                    return true;
+                case THREAD:
+                    threadName = known(value);
+                    return true;
+                case CLASS:
+                    className = known(value);
+                    return true;
+                case METHOD:
+                    methodName = known(value);
+                    return methodName == null || methodName.indexOf('.') < 0;
+                case MODULE:
+                    moduleName = known(value);
+                    return true;
+                case FILE:
+                    fileName = known(value);
+                    return true;
+                case LINE:
+                    if (known(value) == null) {
+                        lineNumber = -1;
+                        return true;
+                    }
+                    try {
+                        lineNumber = Integer.parseInt(value);
+                        return true;
+                    } catch (NumberFormatException ex) {
+                        return false;
+                    }
+                default:
+                    return true;
+            }
+        }
+
+        LogEntry toEntry() {
+            CallerInfo caller = null;
+            if (className != null || methodName != null || fileName != null || lineNumber >= 0) {
+                caller = new CallerInfo(new StackTraceElement(null, moduleName, null,
+                        className != null ? className : "<unknown class>",
+                        methodName != null ? methodName : "<unknown method>",
+                        fileName, nativeMethod ? -2 : lineNumber));
+            }
+            LogEntry log = new LogEntry(level, message, time, threadName, caller, null, null);
+            log.sampleRate = sampleRate;
+            return log;
+        }
+    }
+
+    /**
+     * A part of a compiled pattern.
+     */
+    interface Segment {
+        void append(LogEntry log, StringBuilder out);
+    }
+
+    /**
+     * A segment together with what is needed to parse it back.
+     */
+    static final class Field {
+        final Segment segment;
+        final String literal;
+        final Placeholder placeholder;
+        final TimeFormat time;
+        final String[] choices;
+
+        private Field(Segment segment, String literal, Placeholder placeholder, TimeFormat time, String[] choices) {
+            this.segment = segment;
+            this.literal = literal;
+            this.placeholder = placeholder;
+            this.time = time;
+            this.choices = choices;
+        }
+
+        static Field literal(String text) {
+            return new Field((log, out) -> out.append(text), text, null, null, null);
+        }
+    }
+
+    private static Field[] compileFields(String pattern) {
+        List<Field> fields = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < pattern.length()) {
+            int consumed = 0;
+            Field field = null;
+            if (pattern.charAt(i) == '-') {
+                String rest = pattern.substring(i);
+                String[] args;
+                if ((args = arguments(rest, "-time<")) != null) {
+                    field = timeField(args[0], args[1]);
+                    consumed = args[2].length();
+                } else if ((args = arguments(rest, "-native<")) != null) {
+                    String onTrue = args[0];
+                    String onFalse = args[1];
+                    field = new Field((log, out) -> out.append(isNative(log) ? onTrue : onFalse),
+                            null, null, null, new String[] { onTrue, onFalse });
+                    consumed = args[2].length();
+                } else {
+                    for (Placeholder placeholder : Placeholder.values()) {
+                        if (rest.startsWith(placeholder.token)) {
+                            field = new Field(placeholder.segment, null, placeholder, null, null);
+                            consumed = placeholder.token.length();
+                            break;
+                        }
+                    }
+                }
+            }
+
+            if (field == null) {
+                literal.append(pattern.charAt(i++));
+                continue;
+            }
+            if (literal.length() > 0) {
+                fields.add(Field.literal(literal.toString()));
+                literal.setLength(0);
+            }
+            fields.add(field);
+            i += consumed;
+        }
+        if (literal.length() > 0) {
+            fields.add(Field.literal(literal.toString()));
+        }
+        return fields.toArray(new Field[0]);
+    }
+
+    /**
+     * Parses a placeholder with arguments, e.g. {@code -time<HH:mm:ss, UTC>}.
+     *
+     * @return The two arguments and the whole placeholder text, or null if it does not match.
+     */
+    private static String[] arguments(String rest, String prefix) {
+        if (!rest.startsWith(prefix)) {
+            return null;
+        }
+        int close = rest.indexOf('>', prefix.length());
+        if (close < 0) {
+            return null;
+        }
+        String body = rest.substring(prefix.length(), close);
+        int separator = body.indexOf(", ");
+        if (separator <= 0 || separator + 2 >= body.length() || body.indexOf(',') < separator) {
+            return null;
+        }
+        return new String[] { body.substring(0, separator), body.substring(separator + 2), rest.substring(0, close + 1) };
+    }
+
+    private static Field timeField(String timePattern, String timeZoneId) {
+        if ("START".equalsIgnoreCase(timeZoneId)) {
+            return new Field((log, out) -> out.append(LogFormatter.formatElapsedTime(System.currentTimeMillis() - LogFormatter.START_TIME, timePattern)),
+                    null, null, null, null);
+        }
+        TimeFormat time = new TimeFormat(timePattern, timeZoneId);
+        return new Field(time, null, null, time, null);
+    }
+
+    /**
+     * A time placeholder. UTC patterns made of numeric fields are formatted with plain arithmetic,
+     * others with a {@link DateTimeFormatter}, which is also used for parsing and created on first use.
+     * Patterns use the {@link java.text.SimpleDateFormat} letters, see {@link #compile(String)}.
+     */
+    private static final class TimeFormat implements Segment {
+        private static final long MILLIS_PER_DAY = 86_400_000L;
+
+        private final String pattern;
+        private final String zoneId;
+        private final String[] tokens; // Fields such as "HH" and literals, null if not formatted arithmetically
+        private final boolean hasDate;
+        private volatile DateTimeFormatter formatter;
+
+        TimeFormat(String pattern, String zoneId) {
+            this.pattern = pattern;
+            this.zoneId = zoneId;
+            this.tokens = "UTC".equals(zoneId) || "GMT".equals(zoneId) ? tokenize(pattern) : null;
+            this.hasDate = tokens != null && (pattern.contains("yyyy") || pattern.contains("MM") || pattern.contains("dd"));
+        }
+
+        /**
+         * Splits a pattern into numeric fields and literals.
+         *
+         * @return The tokens, or null if the pattern has other letters or quotes.
+         */
+        private static String[] tokenize(String pattern) {
+            List<String> tokens = new ArrayList<>();
+            int i = 0;
+            while (i < pattern.length()) {
+                char c = pattern.charAt(i);
+                int end = i + 1;
+                if (Character.isLetter(c)) {
+                    while (end < pattern.length() && pattern.charAt(end) == c) {
+                        end++;
+                    }
+                    String field = pattern.substring(i, end);
+                    switch (field) {
+                        case "yyyy": case "MM": case "dd": case "HH": case "mm": case "ss": case "SSS":
+                            break;
+                        default:
+                            return null;
+                    }
+                } else if (c == '\'') {
+                    return null; // Quoted text is left to the formatter
+                }
+                tokens.add(pattern.substring(i, end));
+                i = end;
+            }
+            return tokens.toArray(new String[0]);
+        }
+
+        DateTimeFormatter formatter() {
+            DateTimeFormatter result = formatter;
+            if (result == null) {
+                ZoneId zone = TimeZone.getTimeZone(zoneId).toZoneId();
+                result = compile(pattern).withZone(zone);
+                formatter = result;
+            }
+            return result;
+        }
+
+        /**
+         * Compiles a {@link java.text.SimpleDateFormat} pattern, the syntax time placeholders
+         * always had. Letters that mean something else to {@link DateTimeFormatter} keep their
+         * old meaning: {@code S} is the millisecond rather than a fraction of the second,
+         * {@code u} the day number of the week (1 is Monday) rather than the year, and
+         * {@code F} the day of the week in the month. {@code [ ] { } #} are plain text.
+         *
+         * @throws IllegalArgumentException If the pattern is invalid.
+         */
+        static DateTimeFormatter compile(String pattern) {
+            DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
+            int i = 0;
+            while (i < pattern.length()) {
+                char c = pattern.charAt(i);
+                int end = i + 1;
+                if (c == '\'') {
+                    StringBuilder text = new StringBuilder();
+                    boolean quoted = end == pattern.length() || pattern.charAt(end) != '\'';
+                    if (!quoted) {
+                        text.append('\''); // '' is a quote, inside or outside quoted text
+                        end++;
+                    }
+                    while (quoted) {
+                        if (end == pattern.length()) {
+                            throw new IllegalArgumentException("Unterminated quote in time pattern: " + pattern);
+                        }
+                        char q = pattern.charAt(end++);
+                        if (q != '\'') {
+                            text.append(q);
+                        } else if (end < pattern.length() && pattern.charAt(end) == '\'') {
+                            text.append('\'');
+                            end++;
+                        } else {
+                            quoted = false;
+                        }
+                    }
+                    builder.appendLiteral(text.toString());
+                } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                    while (end < pattern.length() && pattern.charAt(end) == c) {
+                        end++;
+                    }
+                    int width = end - i;
+                    switch (c) {
+                        case 'S':
+                            builder.appendValue(ChronoField.MILLI_OF_SECOND, width, Math.max(width, 3), SignStyle.NOT_NEGATIVE);
+                            break;
+                        case 'u':
+                            builder.appendValue(ChronoField.DAY_OF_WEEK, width);
+                            break;
+                        case 'F':
+                            builder.appendValue(ChronoField.ALIGNED_WEEK_OF_MONTH, width);
+                            break;
+                        default:
+                            builder.appendPattern(pattern.substring(i, end));
+                            break;
+                    }
+                } else {
+                    builder.appendLiteral(c);
+                }
+                i = end;
+            }
+            return builder.toFormatter();
+        }
+
+        @Override
+        public void append(LogEntry log, StringBuilder out) {
+            if (tokens == null) {
+                formatter().formatTo(Instant.ofEpochMilli(log.getTime()), out);
+                return;
+            }
+            long time = log.getTime();
+            long days = Math.floorDiv(time, MILLIS_PER_DAY);
+            int millisOfDay = (int) Math.floorMod(time, MILLIS_PER_DAY);
+            long year = 0;
+            int month = 0;
+            int day = 0;
+            if (hasDate) {
+                // Civil date from days since the epoch, proleptic Gregorian calendar
+                long shifted = days + 719_468;
+                long era = Math.floorDiv(shifted, 146_097);
+                long dayOfEra = shifted - era * 146_097;
+                long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+                long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+                long monthIndex = (5 * dayOfYear + 2) / 153;
+                day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+                month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+                year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+            }
+            for (String token : tokens) {
+                switch (token) {
+                    case "yyyy": pad(out, year, 4); break;
+                    case "MM": pad(out, month, 2); break;
+                    case "dd": pad(out, day, 2); break;
+                    case "HH": pad(out, millisOfDay / 3_600_000, 2); break;
+                    case "mm": pad(out, millisOfDay / 60_000 % 60, 2); break;
+                    case "ss": pad(out, millisOfDay / 1_000 % 60, 2); break;
+                    case "SSS": pad(out, millisOfDay % 1_000, 3); break;
+                    default: out.append(token); break;
+                }
+            }
+        }
+
+        private static void pad(StringBuilder out, long value, int width) {
+            for (long limit = 10; --width > 0; limit *= 10) {
+                if (value < limit) {
+                    out.append('0');
+                }
+            }
+            out.append(value);
+        }
+    }
+
+    private static boolean isNative(LogEntry log) {
+        return log.getCallerInfo() != null && log.getCallerInfo().getStackTraceElement() != null
+                && log.getCallerInfo().isNativeMethod();
+    }
+
+    private static CallerInfo caller(LogEntry log) {
+        CallerInfo caller = log.getCallerInfo();
+        return caller != null && caller.getStackTraceElement() != null ? caller : null;
+    }
+
+    private static StringBuilder appendOr(StringBuilder out, String value, String unknown) {
+        return out.append(value != null && !value.isEmpty() ? value : unknown);
+    }
+
+    static void appendType(LogEntry log, StringBuilder out) {
+        out.append(log.getLevel().toString());
+    }
+
+    static void appendRate(LogEntry log, StringBuilder out) {
+        out.append(log.getSampleRate());
+    }
+
+    static void appendMessage(LogEntry log, StringBuilder out) {
+        out.append(log.getMessage());
+    }
+
+    static void appendThread(LogEntry log, StringBuilder out) {
+        appendOr(out, log.getThreadName(), "<unknown thread>");
+    }
+
+    static void appendClass(LogEntry log, StringBuilder out) {
+        CallerInfo caller = caller(log);
+        appendOr(out, caller != null ? caller.getClassName() : null, "<unknown class>");
+    }
+
+    static void appendMethod(LogEntry log, StringBuilder out) {
+        CallerInfo caller = caller(log);
+        appendOr(out, caller != null ? caller.getMethodName() : null, "<unknown method>");
+    }
+
+    static void appendModule(LogEntry log, StringBuilder out) {
+        CallerInfo caller = caller(log);
+        appendOr(out, caller != null ? caller.getModuleName() : null, "<unknown module>");
+    }
+
+    static void appendFile(LogEntry log, StringBuilder out) {
+        CallerInfo caller = caller(log);
+        appendOr(out, caller != null ? caller.getFileName() : null, "<unknown file>");
+    }
+
+    static void appendLine(LogEntry log, StringBuilder out) {
+        CallerInfo caller = caller(log);
+        if (caller != null) {
+            out.append(caller.getLineNumber());
+        } else {
+            out.append("<unknown line>");
+        }
+    }
+
+    /**
+     * Placeholders without arguments, in the order they are matched. Each one is
+     * appended by a static method of this class, which generated formatters call directly.
+     */
+    enum Placeholder {
+        TYPE("-type", "appendType", LogPattern::appendType),
+        RATE("-rate", "appendRate", LogPattern::appendRate),
+        MESSAGE("-message", "appendMessage", LogPattern::appendMessage),
+        THREAD("-thread", "appendThread", LogPattern::appendThread),
+        CLASS("-class", "appendClass", LogPattern::appendClass),
+        METHOD("-method", "appendMethod", LogPattern::appendMethod),
+        MODULE("-module", "appendModule", LogPattern::appendModule),
+        FILE("-file", "appendFile", LogPattern::appendFile),
+        LINE("-line", "appendLine", LogPattern::appendLine);
+
+        final String token;
+        final String method;
+        final Segment segment;
+
+        Placeholder(String token, String method, Segment segment) {
+            this.token = token;
+            this.method = method;
+            this.segment = segment;
+        }
+    }
+}
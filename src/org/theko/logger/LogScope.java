@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.theko.logger.timer.WatchTimer;
+
+/**
+ * A unit of work, such as a request, whose entries are held back until it ends.
+ * <p>
+ * Opened with {@link Logger#openScope(long)} and closed on the same thread, usually in a
+ * try-with-resources statement. While the scope is open, the entries of its logger on that
+ * thread go to a buffer instead of the outputs, the log list and the subscribers. At close
+ * the buffer is emitted in order if the scope failed or its {@link WatchTimer} exceeded the
+ * threshold; otherwise it is discarded, and the entries are never formatted or written.
+ * <p>
+ * A scope fails when an entry at {@link LogLevel#ERROR} or above is logged in it, or when
+ * {@link #fail()} is called, typically from a catch block, since the scope cannot see an
+ * exception leaving the try block.
+ * <p>
+ * Each thread reuses one scope object and its buffer per logger. Opening a scope while one is
+ * already open on the thread joins the outer scope: the inner close only ends the nesting, and
+ * the outer threshold and close decide.
+ */
+public final class LogScope implements AutoCloseable {
+    private static final int RETAINED_CAPACITY = 1024; // Larger buffers are dropped at close
+
+    private final Logger logger;
+    private List<LogEntry> buffer = new ArrayList<>();
+    private final WatchTimer timer = new WatchTimer();
+
+    private long thresholdNanos;
+    private boolean failed;
+    private int depth;
+
+    LogScope(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Opens the scope, or joins it if it is already open.
+     */
+    void open(long thresholdMillis) {
+        if (depth++ > 0) {
+            return;
+        }
+        this.thresholdNanos = thresholdMillis * 1_000_000;
+        this.failed = false;
+        timer.reset();
+        timer.start();
+    }
+
+    /**
+     * Buffers an entry emitted while the scope is open.
+     */
+    void buffer(LogEntry log) {
+        if (log.level.ordinal() >= LogLevel.ERROR.ordinal()) {
+            failed = true;
+        }
+        buffer.add(log);
+    }
+
+    /**
+     * Checks if the scope is open on the current thread.
+     *
+     * @return true if the scope is open, false otherwise.
+     */
+    public boolean isOpen() {
+        return depth > 0;
+    }
+
+    /**
+     * Marks the scope as failed, so its entries are emitted at close.
+     */
+    public void fail() {
+        this.failed = true;
+    }
+
+    /**
+     * Checks if the scope has failed.
+     *
+     * @return true if an error was logged or {@link #fail()} was called, false otherwise.
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Gets the timer measuring the scope. It can be paused to leave out waiting time.
+     *
+     * @return The timer of the scope.
+     */
+    public WatchTimer getTimer() {
+        return timer;
+    }
+
+    /**
+     * Gets the latency threshold above which the entries are emitted.
+     *
+     * @return The threshold in milliseconds.
+     */
+    public long getThresholdMillis() {
+        return thresholdNanos / 1_000_000;
+    }
+
+    /**
+     * Gets the number of entries held back so far.
+     *
+     * @return The number of buffered entries.
+     */
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    /**
+     * Closes the scope, emitting or discarding the buffered entries.
+     * Does nothing if the scope is not open.
+     */
+    @Override
+    public void close() {
+        if (depth == 0 || --depth > 0) {
+            return;
+        }
+        timer.stop();
+        boolean emit = failed || timer.getElapsedNanos() > thresholdNanos;
+        try {
+            if (emit) {
+                for (LogEntry log : buffer) {
+                    logger.emitBuffered(log);
+                }
+            }
+        } finally {
+            if (buffer.size() > RETAINED_CAPACITY) {
+                buffer = new ArrayList<>();
+            } else {
+                buffer.clear();
+            }
+        }
+    }
+}
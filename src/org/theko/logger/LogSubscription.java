@@ -0,0 +1,284 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * A subscription of a listener to the log entries created by a {@link Logger}.
+ * <p>
+ * Each subscription has its own level filter and delivery mode:
+ * <ul>
+ * <li>inline: the listener runs on the logging thread;</li>
+ * <li>asynchronous: entries are queued and delivered one by one on a dedicated thread;</li>
+ * <li>batched: entries are queued and delivered as a {@code List<LogEntry>} every N milliseconds.</li>
+ * </ul>
+ * Queued subscriptions never block the logging thread; when their queue is full,
+ * the subscription's {@link OverflowPolicy} decides which entry is dropped.
+ * Closing a subscription unsubscribes it and delivers the entries still queued.
+ * The delivery thread is never interrupted, so listeners may use interruptible I/O.
+ */
+public abstract class LogSubscription implements AutoCloseable {
+    /**
+     * Delivery mode of a subscription.
+     */
+    public enum DeliveryMode {
+        INLINE,
+        ASYNC,
+        BATCHED
+    }
+
+    private final LogLevel minLevel;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile Logger logger; // Logger subscribed to, null once closed
+
+    private LogSubscription(LogLevel minLevel) {
+        this.minLevel = minLevel;
+    }
+
+    /**
+     * Delivers a log entry if it passes the level filter. Called on the logging thread.
+     *
+     * @param log The created log entry.
+     */
+    void deliver(LogEntry log) {
+        if (log.level.ordinal() >= minLevel.ordinal()) {
+            accept(log);
+        }
+    }
+
+    abstract void accept(LogEntry log);
+
+    void attach(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Gets the minimum level of entries delivered to the listener.
+     *
+     * @return The minimum {@link LogLevel}.
+     */
+    public LogLevel getMinLevel() {
+        return minLevel;
+    }
+
+    /**
+     * Gets the number of entries dropped because the queue was full.
+     *
+     * @return The number of dropped entries.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Gets the delivery mode of this subscription.
+     *
+     * @return The {@link DeliveryMode}.
+     */
+    public abstract DeliveryMode getDeliveryMode();
+
+    /**
+     * Unsubscribes the listener. Entries already queued are still delivered.
+     */
+    @Override
+    public void close() {
+        Logger subscribed = logger;
+        if (subscribed != null) {
+            logger = null;
+            subscribed.unsubscribe(this);
+        }
+    }
+
+    static LogSubscription inline(Consumer<LogEntry> listener, LogLevel minLevel) {
+        return new Inline(listener, minLevel);
+    }
+
+    static LogSubscription async(Consumer<LogEntry> listener, LogLevel minLevel, int capacity, OverflowPolicy policy) {
+        return new Async(listener, minLevel, capacity, policy).start();
+    }
+
+    static LogSubscription batched(Consumer<List<LogEntry>> listener, LogLevel minLevel, long intervalMillis, int capacity, OverflowPolicy policy) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Batch interval must be positive.");
+        }
+        return new Batched(listener, minLevel, intervalMillis, capacity, policy).start();
+    }
+
+    private static void invoke(Runnable delivery) {
+        try {
+            delivery.run();
+        } catch (RuntimeException ex) {
+            ex.printStackTrace(); // A failing listener must not break logging
+        }
+    }
+
+    private static final class Inline extends LogSubscription {
+        private final Consumer<LogEntry> listener;
+
+        Inline(Consumer<LogEntry> listener, LogLevel minLevel) {
+            super(minLevel);
+            this.listener = listener;
+        }
+
+        @Override
+        void accept(LogEntry log) {
+            invoke(() -> listener.accept(log));
+        }
+
+        @Override
+        public DeliveryMode getDeliveryMode() {
+            return DeliveryMode.INLINE;
+        }
+    }
+
+    /**
+     * Base of subscriptions delivering from a bounded queue on a dedicated thread.
+     */
+    private abstract static class Queued extends LogSubscription implements Runnable {
+        static final long POLL_MILLIS = 50; // Longest delay before a close is noticed
+
+        final BlockingQueue<LogEntry> queue;
+        private final OverflowPolicy policy;
+        private final Thread thread;
+        volatile boolean closed;
+
+        Queued(LogLevel minLevel, int capacity, OverflowPolicy policy, String threadName) {
+            super(minLevel);
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.policy = policy;
+            this.thread = new Thread(this, threadName);
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * Starts the delivery thread, once the subclass is fully constructed.
+         */
+        Queued start() {
+            thread.start();
+            return this;
+        }
+
+        @Override
+        void accept(LogEntry log) {
+            while (!queue.offer(log)) {
+                if (policy == OverflowPolicy.DROP_NEWEST) {
+                    super.dropped.incrementAndGet();
+                    return;
+                }
+                if (queue.poll() != null) {
+                    super.dropped.incrementAndGet();
+                }
+            }
+        }
+
+        /**
+         * Unsubscribes the listener and waits until the entries already queued are delivered,
+         * unless called by the listener itself.
+         */
+        @Override
+        public void close() {
+            super.close();
+            closed = true;
+            LockSupport.unpark(thread);
+            if (Thread.currentThread() == thread) {
+                return;
+            }
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class Async extends Queued {
+        private final Consumer<LogEntry> listener;
+
+        Async(Consumer<LogEntry> listener, LogLevel minLevel, int capacity, OverflowPolicy policy) {
+            super(minLevel, capacity, policy, "LogSubscription-Async");
+            this.listener = listener;
+        }
+
+        @Override
+        public void run() {
+            while (!closed || !queue.isEmpty()) {
+                try {
+                    LogEntry log = closed ? queue.poll() : queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (log != null) {
+                        invoke(() -> listener.accept(log));
+                    }
+                } catch (InterruptedException e) {
+                    // Only close stops delivery
+                }
+            }
+        }
+
+        @Override
+        public DeliveryMode getDeliveryMode() {
+            return DeliveryMode.ASYNC;
+        }
+    }
+
+    private static final class Batched extends Queued {
+        private final Consumer<List<LogEntry>> listener;
+        private final long intervalMillis;
+
+        Batched(Consumer<List<LogEntry>> listener, LogLevel minLevel, long intervalMillis, int capacity, OverflowPolicy policy) {
+            super(minLevel, capacity, policy, "LogSubscription-Batched");
+            this.listener = listener;
+            this.intervalMillis = intervalMillis;
+        }
+
+        @Override
+        public void run() {
+            while (!closed || !queue.isEmpty()) {
+                // Parked instead of sleeping, so close can wake the thread without interrupting it
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+                long remaining;
+                while (!closed && (remaining = deadline - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(this, remaining);
+                }
+                List<LogEntry> batch = new ArrayList<>(queue.size());
+                queue.drainTo(batch);
+                if (!batch.isEmpty()) {
+                    invoke(() -> listener.accept(batch));
+                }
+            }
+        }
+
+        @Override
+        public DeliveryMode getDeliveryMode() {
+            return DeliveryMode.BATCHED;
+        }
+    }
+}
@@ -25,19 +25,41 @@
 package org.theko.logger;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.theko.logger.throttle.RateLimiter;
+import org.theko.logger.throttle.RepeatSuppressor;
+import org.theko.logger.throttle.Sampler;
 
 /**
  * Logger class that implements {@link ILogger}.
  * This class is responsible for logging messages at various levels (DEBUG, INFO, WARN, etc.)
  * and outputting them to a specified {@link LoggerOutput}.
  * It stores log entries and provides access to them.
+ * <p>
+ * Loggers obtained from {@link LoggerFactory} are named and arranged by package hierarchy.
+ * A named logger without its own level or {@link LoggerOutput} inherits them from its parent.
+ * Effective values are precomputed, so the level check is a single volatile read.
  */
 public class Logger implements ILogger {
+
+    /**
+     * Stack walker used to locate the caller without capturing the full stack trace.
+     */
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    /**
+     * Lock guarding updates of effective values across the logger hierarchy.
+     */
+    private static final Object HIERARCHY_LOCK = new Object();
     
     /**
-     * A list to store all the log entries created by the logger.
+     * A synchronized list to store all the log entries created by the logger.
      */
     protected List<LogEntry> logs;
     
@@ -51,7 +73,23 @@ public class Logger implements ILogger {
      */
     private final int stackFunctionOffset;
 
-    private Consumer<LogEntry> onLogCreated; // Handler for log creation events
+    private final String name;   // Hierarchical name, null for standalone loggers
+    private final Logger parent; // Parent in the hierarchy, null for root and standalone loggers
+    private final List<Logger> children = new CopyOnWriteArrayList<>();
+
+    private volatile LogLevel level; // Explicit level, null to inherit from parent
+    private volatile LogLevel effectiveLevel;        // Cached level gate
+    private volatile LoggerOutput effectiveOutput;   // Cached output, own or inherited
+
+    private final List<LogSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private LogSubscription onLogCreated; // Subscription of the handler for log creation events
+
+    private volatile RateLimiter callSiteRateLimiter; // Token buckets per call site
+    private volatile RateLimiter templateRateLimiter; // Token buckets per message template
+    private volatile RepeatSuppressor repeatSuppressor; // Collapses identical consecutive messages
+    private volatile Sampler sampler; // Decides which statements are kept before capturing
+    private volatile FlightRecorder flightRecorder; // Keeps unwritten entries for dumps on errors
+    private final ThreadLocal<LogScope> scopes = new ThreadLocal<>(); // Reused scope of each thread
 
     /**
      * Constructs a Logger instance with the specified {@link LoggerOutput} and stack trace offset.
@@ -60,13 +98,37 @@ public class Logger implements ILogger {
      * @param stackFunctionOffset Offset for identifying the caller in the stack trace.
      */
     public Logger(LoggerOutput loggerOutput, int stackFunctionOffset) {
+        this(null, null, loggerOutput, stackFunctionOffset);
+
+        if (loggerOutput == null || !loggerOutput.containsAppender()) {
+            // Recorded directly: the full logging path would walk the stack and load the formatter
+            System.err.println("LoggerOutput passed is null.");
+            logs.add(new LogEntry(LogLevel.WARN, "LoggerOutput passed is null.", System.currentTimeMillis(),
+                    Thread.currentThread().getName(), null, null));
+        }
+    }
+
+    /**
+     * Constructs a named Logger instance placed under the specified parent.
+     * Used by {@link LoggerFactory} to build the logger hierarchy.
+     *
+     * @param name               The hierarchical name of the logger.
+     * @param parent             The parent logger, or {@code null} for the root logger.
+     * @param loggerOutput       The {@link LoggerOutput} of this logger, or {@code null} to inherit the parent's one.
+     * @param stackFunctionOffset Offset for identifying the caller in the stack trace.
+     */
+    protected Logger(String name, Logger parent, LoggerOutput loggerOutput, int stackFunctionOffset) {
+        this.name = name;
+        this.parent = parent;
         this.loggerOutput = loggerOutput;
-        this.logs = new ArrayList<>();
+        this.logs = Collections.synchronizedList(new ArrayList<>());
         this.stackFunctionOffset = stackFunctionOffset;
 
-        if (loggerOutput == null || !loggerOutput.containsOutputStream()) {
-            System.err.println("LoggerOutput passed is null.");
-            this.log(LogLevel.WARN, "LoggerOutput passed is null.");
+        synchronized (HIERARCHY_LOCK) {
+            if (parent != null) {
+                parent.children.add(this);
+            }
+            updateEffectiveValues();
         }
     }
 
@@ -84,46 +146,279 @@ public class Logger implements ILogger {
      * Logs a message at the specified log level. 
      * Captures caller information and stack trace details.
      * The log entry is added to the internal log list and sent to the {@link LoggerOutput}.
+     * <p>
+     * Messages below the effective level are dropped first.
+     * Sampling is decided before any capture work. Rate limiting and repeat suppression
+     * are applied before the full stack trace is captured, so suppressed calls only pay
+     * for locating the caller frame.
      * 
      * @param level   The severity level of the log (DEBUG, INFO, WARN, etc.).
      * @param message The message to be logged.
      */
     @Override
     public void log(LogLevel level, String message) {
-        StackTraceElement[] stackTrace = getStackTrace();
-        StackTraceElement callerElement = null;
-
-        // Find the calling method to include in the log entry
-        for (int i = 0; i < stackTrace.length; i++) {
-            StackTraceElement element = stackTrace[i];
-            
-            if (element.getMethodName().equals("log") && element.getClassName().equals(this.getClass().getName())) {
-                if (i + stackFunctionOffset < stackTrace.length) {
-                    callerElement = stackTrace[i + stackFunctionOffset];
-                }
-                break;
+        log(level, message, null);
+    }
+
+    /**
+     * Logs a message with an attached throwable at the specified log level.
+     * Behaves like {@link #log(LogLevel, String)}; the throwable is stored in the
+     * {@link LogEntry} and rendered only when an output writes it.
+     * 
+     * @param level     The severity level of the log (DEBUG, INFO, WARN, etc.).
+     * @param message   The message to be logged.
+     * @param throwable The throwable to attach, may be {@code null}.
+     */
+    @Override
+    public void log(LogLevel level, String message, Throwable throwable) {
+        log(level, message, throwable, null);
+    }
+
+    /**
+     * Logs a message on behalf of an explicitly identified caller.
+     * Used by bridges whose stack depth between the real caller and this
+     * logger is not fixed, so {@code stackFunctionOffset} cannot describe it.
+     * 
+     * @param level     The severity level of the log (DEBUG, INFO, WARN, etc.).
+     * @param message   The message to be logged.
+     * @param throwable The throwable to attach, may be {@code null}.
+     * @param caller    The frame to report as the caller, or {@code null} to look it up.
+     */
+    public void log(LogLevel level, String message, Throwable throwable, StackTraceElement caller) {
+        log(level, message, throwable, caller, null);
+    }
+
+    /**
+     * Logs a message at a precomputed call site, without walking the stack.
+     * See {@link CallSite}.
+     * 
+     * @param site    The call site of the log statement.
+     * @param level   The severity level of the log (DEBUG, INFO, WARN, etc.).
+     * @param message The message to be logged.
+     */
+    public void log(CallSite site, LogLevel level, String message) {
+        log(site, level, message, null);
+    }
+
+    /**
+     * Logs a message with an attached throwable at a precomputed call site, without walking the stack.
+     * The entries share the caller information and the one-frame stack trace of the call site.
+     * 
+     * @param site      The call site of the log statement.
+     * @param level     The severity level of the log (DEBUG, INFO, WARN, etc.).
+     * @param message   The message to be logged.
+     * @param throwable The throwable to attach, may be {@code null}.
+     */
+    public void log(CallSite site, LogLevel level, String message, Throwable throwable) {
+        if (level.ordinal() < effectiveLevel.ordinal()) {
+            recordDisabled(level, message, throwable, site);
+            return;
+        }
+        if (!site.isResolved()) {
+            site.resolve(findCaller());
+        }
+        log(level, message, throwable, site.getStackTraceElement(), site);
+    }
+
+    private void log(LogLevel level, String message, Throwable throwable, StackTraceElement caller, CallSite site) {
+        if (level.ordinal() < effectiveLevel.ordinal()) {
+            recordDisabled(level, message, throwable, site);
+            return;
+        }
+
+        StackTraceElement callerElement = caller;
+        double sampleRate = 1.0;
+
+        Sampler sampler = this.sampler;
+        if (sampler != null) {
+            if (callerElement == null && sampler.requiresCallSite()) {
+                callerElement = findCaller();
+            }
+            sampleRate = sampler.sample(level, callerElement);
+            if (sampleRate <= 0) {
+                return;
             }
         }
 
+        if (callerElement == null) {
+            callerElement = findCaller();
+        }
+        if (!isAdmitted(level, message, callerElement)) {
+            return;
+        }
+
         // Create and add the log entry
         LogEntry log = new LogEntry(
                 level,
                 message,
                 System.currentTimeMillis(),
                 Thread.currentThread().getName(),
-                new CallerInfo(callerElement),
-                new StackTraceInfo(stackTrace)
+                site != null && site.isResolved() ? site.getCallerInfo() : new CallerInfo(callerElement),
+                site != null && site.isResolved() ? site.getStackTraceInfo() : new StackTraceInfo(getStackTrace()),
+                throwable
             );
+        log.sampleRate = sampleRate;
+        emit(log);
+    }
+
+    /**
+     * Adds the log entry to the internal log list, the {@link LoggerOutput} and the handler,
+     * or to the scope open on the current thread.
+     *
+     * @param log The log entry to publish.
+     */
+    private void emit(LogEntry log) {
+        LogScope scope = scopes.get();
+        if (scope != null && scope.isOpen()) {
+            scope.buffer(log);
+            return;
+        }
+        emitBuffered(log);
+    }
+
+    /**
+     * Publishes a log entry, bypassing the scope of the current thread.
+     *
+     * @param log The log entry to publish.
+     */
+    void emitBuffered(LogEntry log) {
+        log.loggerName = name;
         logs.add(log);
         
         // Output the log entry if the loggerOutput is set
-        if (loggerOutput != null) {
-            loggerOutput.addToOutput(log);
+        LoggerOutput output = effectiveOutput;
+        if (output != null) {
+            FlightRecorder recorder = flightRecorder;
+            if (recorder != null) {
+                if (log.level.ordinal() >= recorder.getTriggerLevel().ordinal()) {
+                    List<LogEntry> context = recorder.drain();
+                    if (!context.isEmpty()) {
+                        output.addToOutputUnfiltered(context);
+                    }
+                } else if (log.level.ordinal() < output.getPreferredLevel().ordinal()) {
+                    recorder.record(log);
+                }
+            }
+            output.addToOutput(log);
         }
 
-        if (onLogCreated != null) {
-            onLogCreated.accept(log);
+        for (LogSubscription subscription : subscriptions) {
+            subscription.deliver(log);
+        }
+    }
+
+    /**
+     * Records an entry below the level of this logger in the flight recorder, if any.
+     * The entry gets no caller information unless the call site is resolved.
+     */
+    private void recordDisabled(LogLevel level, String message, Throwable throwable, CallSite site) {
+        FlightRecorder recorder = flightRecorder;
+        if (recorder != null) {
+            boolean resolved = site != null && site.isResolved();
+            LogEntry log = new LogEntry(
+                    level,
+                    message,
+                    System.currentTimeMillis(),
+                    Thread.currentThread().getName(),
+                    resolved ? site.getCallerInfo() : null,
+                    resolved ? site.getStackTraceInfo() : null,
+                    throwable
+                );
+            log.loggerName = name;
+            recorder.record(log);
+        }
+    }
+
+    /**
+     * Applies repeat suppression and rate limiting to a message.
+     * Summaries of suppressed messages are emitted when the suppression ends.
+     *
+     * @param level   The severity level of the log.
+     * @param message The message to be logged.
+     * @param caller  The call site of the log statement, may be {@code null}.
+     * @return {@code true} if the message should be logged.
+     */
+    private boolean isAdmitted(LogLevel level, String message, StackTraceElement caller) {
+        RepeatSuppressor repeats = repeatSuppressor;
+        if (repeats != null && repeats.suppress(level, message, caller, this::emitRepeatSummary)) {
+            return false;
+        }
+
+        RateLimiter limiter = callSiteRateLimiter;
+        if (limiter != null && caller != null) {
+            long suppressed = limiter.tryAcquire(caller);
+            if (suppressed < 0) {
+                return false;
+            }
+            if (suppressed > 0) {
+                emitSummary(level, "Suppressed " + suppressed + " messages from this call site.", caller);
+            }
+        }
+
+        limiter = templateRateLimiter;
+        if (limiter != null && message != null) {
+            long suppressed = limiter.tryAcquire(RateLimiter.templateOf(message));
+            if (suppressed < 0) {
+                return false;
+            }
+            if (suppressed > 0) {
+                emitSummary(level, "Suppressed " + suppressed + " messages matching this template.", caller);
+            }
+        }
+        return true;
+    }
+
+    private void emitRepeatSummary(RepeatSuppressor.Run run) {
+        emitSummary(run.getLevel(), "Last message repeated " + run.getRepeats() + " times.", run.getSite());
+    }
+
+    private void emitSummary(LogLevel level, String message, StackTraceElement caller) {
+        emit(new LogEntry(
+                level,
+                message,
+                System.currentTimeMillis(),
+                Thread.currentThread().getName(),
+                new CallerInfo(caller),
+                null
+            ));
+    }
+
+    /**
+     * Locates the stack frame which called this logger, honoring the stack function offset.
+     * Only the frames up to the caller are walked.
+     *
+     * @return The {@link StackTraceElement} of the caller, or {@code null} if it cannot be found.
+     */
+    protected StackTraceElement findCaller() {
+        return STACK_WALKER.walk(this::findCaller);
+    }
+
+    // A plain loop rather than a stream pipeline, which costs several milliseconds on first use
+    private StackTraceElement findCaller(Stream<StackWalker.StackFrame> frames) {
+        Iterator<StackWalker.StackFrame> iterator = frames.iterator();
+        boolean inLogger = false;
+        boolean pastLogger = false;
+        int skip = stackFunctionOffset - 1;
+        while (iterator.hasNext()) {
+            StackWalker.StackFrame frame = iterator.next();
+            if (!pastLogger) {
+                boolean loggerFrame = isLoggerFrame(frame);
+                inLogger |= loggerFrame;
+                if (loggerFrame || !inLogger) {
+                    continue;
+                }
+                pastLogger = true;
+            }
+            if (skip-- <= 0) {
+                return frame.toStackTraceElement();
+            }
         }
+        return null;
+    }
+
+    private boolean isLoggerFrame(StackWalker.StackFrame frame) {
+        String className = frame.getClassName();
+        return className.equals(Logger.class.getName()) || className.equals(getClass().getName());
     }
 
     /**
@@ -137,11 +432,286 @@ public class Logger implements ILogger {
 
     /**
      * Sets the handler for when a new log is created.
+     * The handler runs inline on the logging thread and replaces the previously set one.
      *
      * @param handler A consumer that takes the last log entry as an argument.
      */
-    public void setOnLogCreated(Consumer<LogEntry> handler) {
-        this.onLogCreated = handler;
+    public synchronized void setOnLogCreated(Consumer<LogEntry> handler) {
+        if (onLogCreated != null) {
+            onLogCreated.close();
+        }
+        onLogCreated = handler != null ? subscribe(handler, LogLevel.DEBUG) : null;
+    }
+
+    /**
+     * Subscribes a listener which runs inline on the logging thread.
+     *
+     * @param listener The listener receiving created log entries.
+     * @param minLevel The minimum level of entries delivered to the listener.
+     * @return The subscription, which can be closed to unsubscribe.
+     */
+    public LogSubscription subscribe(Consumer<LogEntry> listener, LogLevel minLevel) {
+        return addSubscription(LogSubscription.inline(listener, minLevel));
+    }
+
+    /**
+     * Subscribes a listener which receives entries one by one on its own thread.
+     * The logging thread only queues entries and never waits for the listener.
+     *
+     * @param listener The listener receiving created log entries.
+     * @param minLevel The minimum level of entries delivered to the listener.
+     * @param capacity The capacity of the listener's queue.
+     * @param policy   The policy applied when the queue is full.
+     * @return The subscription, which can be closed to unsubscribe.
+     */
+    public LogSubscription subscribeAsync(Consumer<LogEntry> listener, LogLevel minLevel, int capacity, OverflowPolicy policy) {
+        return addSubscription(LogSubscription.async(listener, minLevel, capacity, policy));
+    }
+
+    /**
+     * Subscribes a listener which receives batches of entries on its own thread
+     * every {@code intervalMillis} milliseconds. Empty batches are not delivered.
+     *
+     * @param listener       The listener receiving batches of created log entries.
+     * @param minLevel       The minimum level of entries delivered to the listener.
+     * @param intervalMillis The interval between batches in milliseconds.
+     * @param capacity       The capacity of the listener's queue.
+     * @param policy         The policy applied when the queue is full.
+     * @return The subscription, which can be closed to unsubscribe.
+     * @throws IllegalArgumentException If the interval is not positive.
+     */
+    public LogSubscription subscribeBatched(Consumer<List<LogEntry>> listener, LogLevel minLevel, long intervalMillis, int capacity, OverflowPolicy policy) {
+        return addSubscription(LogSubscription.batched(listener, minLevel, intervalMillis, capacity, policy));
+    }
+
+    private LogSubscription addSubscription(LogSubscription subscription) {
+        subscription.attach(this);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Removes a subscription. Called by {@link LogSubscription#close()}.
+     *
+     * @param subscription The subscription to remove.
+     */
+    void unsubscribe(LogSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    /**
+     * Gets the hierarchical name of this logger.
+     *
+     * @return The name, an empty string for the root logger, or {@code null} for standalone loggers.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the parent of this logger in the hierarchy.
+     *
+     * @return The parent logger, or {@code null} for root and standalone loggers.
+     */
+    public Logger getParent() {
+        return parent;
+    }
+
+    /**
+     * Sets the level of this logger. Messages below the level are dropped before any capture work.
+     * Only the subtree of loggers inheriting from this logger is updated.
+     *
+     * @param level The level, or {@code null} to inherit the parent's level.
+     */
+    public void setLevel(LogLevel level) {
+        synchronized (HIERARCHY_LOCK) {
+            this.level = level;
+            updateEffectiveValues();
+        }
+    }
+
+    /**
+     * Gets the level explicitly set on this logger.
+     *
+     * @return The level, or {@code null} if it is inherited.
+     */
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets the level in effect for this logger, either its own or the inherited one.
+     * Standalone loggers without a level let all messages through.
+     *
+     * @return The effective {@link LogLevel}.
+     */
+    public LogLevel getEffectiveLevel() {
+        return effectiveLevel;
+    }
+
+    /**
+     * Checks whether messages of the specified level pass the level gate of this logger.
+     *
+     * @param level The level to check.
+     * @return {@code true} if messages of this level are logged.
+     */
+    public boolean isEnabled(LogLevel level) {
+        return level.ordinal() >= effectiveLevel.ordinal();
+    }
+
+    /**
+     * Sets the {@link LoggerOutput} of this logger.
+     * Only the subtree of loggers inheriting from this logger is updated.
+     *
+     * @param loggerOutput The output, or {@code null} to inherit the parent's output.
+     */
+    public void setLoggerOutput(LoggerOutput loggerOutput) {
+        synchronized (HIERARCHY_LOCK) {
+            this.loggerOutput = loggerOutput;
+            updateEffectiveValues();
+        }
+    }
+
+    /**
+     * Gets the {@link LoggerOutput} explicitly set on this logger.
+     *
+     * @return The output, or {@code null} if it is inherited.
+     */
+    public LoggerOutput getLoggerOutput() {
+        return loggerOutput;
+    }
+
+    /**
+     * Gets the {@link LoggerOutput} in effect for this logger, either its own or the inherited one.
+     *
+     * @return The effective output, or {@code null} if there is none.
+     */
+    public LoggerOutput getEffectiveLoggerOutput() {
+        return effectiveOutput;
+    }
+
+    /**
+     * Recomputes the cached effective values of this logger and propagates
+     * changes to the children which inherit them. Must hold {@link #HIERARCHY_LOCK}.
+     */
+    private void updateEffectiveValues() {
+        LogLevel newLevel = level != null ? level
+                : parent != null ? parent.effectiveLevel : LogLevel.DEBUG;
+        LoggerOutput newOutput = loggerOutput != null ? loggerOutput
+                : parent != null ? parent.effectiveOutput : null;
+        
+        boolean changed = newLevel != effectiveLevel || newOutput != effectiveOutput;
+        effectiveLevel = newLevel;
+        effectiveOutput = newOutput;
+        if (changed) {
+            for (Logger child : children) {
+                child.updateEffectiveValues();
+            }
+        }
+    }
+
+    /**
+     * Sets the rate limiter applied per call site. Calls exceeding the rate are dropped
+     * and reported by a summary entry once the call site is admitted again.
+     *
+     * @param rateLimiter The rate limiter, or {@code null} to disable call site rate limiting.
+     */
+    public void setCallSiteRateLimiter(RateLimiter rateLimiter) {
+        this.callSiteRateLimiter = rateLimiter;
+    }
+
+    /**
+     * Sets the rate limiter applied per message template (see {@link RateLimiter#templateOf(String)}).
+     *
+     * @param rateLimiter The rate limiter, or {@code null} to disable template rate limiting.
+     */
+    public void setTemplateRateLimiter(RateLimiter rateLimiter) {
+        this.templateRateLimiter = rateLimiter;
+    }
+
+    /**
+     * Sets the sampler which decides which log statements are kept.
+     * Kept entries record their sample rate (see {@link LogEntry#getSampleRate()}).
+     *
+     * @param sampler The sampler, or {@code null} to keep every statement.
+     */
+    public void setSampler(Sampler sampler) {
+        this.sampler = sampler;
+    }
+
+    /**
+     * Opens a scope for a unit of work on the current thread, see {@link LogScope}.
+     * Entries are held back until the scope is closed, and emitted only if it failed
+     * or took longer than the threshold.
+     *
+     * @param thresholdMillis The latency in milliseconds above which the entries are emitted.
+     * @return The open scope, to be closed on the same thread.
+     */
+    public LogScope openScope(long thresholdMillis) {
+        if (thresholdMillis < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative.");
+        }
+        LogScope scope = scopes.get();
+        if (scope == null) {
+            scope = new LogScope(this);
+            scopes.set(scope);
+        }
+        scope.open(thresholdMillis);
+        return scope;
+    }
+
+    /**
+     * Gets the scope open on the current thread.
+     *
+     * @return The open scope, or {@code null} if none is open.
+     */
+    public LogScope getCurrentScope() {
+        LogScope scope = scopes.get();
+        return scope != null && scope.isOpen() ? scope : null;
+    }
+
+    /**
+     * Sets the flight recorder keeping the entries that are not written, see {@link FlightRecorder}.
+     * With a recorder set, entries below the level of this logger are still created, without
+     * caller lookup, so keep the recorder's capacity modest on hot paths.
+     *
+     * @param recorder The flight recorder, or {@code null} to disable recording.
+     */
+    public void setFlightRecorder(FlightRecorder recorder) {
+        this.flightRecorder = recorder;
+    }
+
+    /**
+     * Gets the flight recorder of this logger.
+     *
+     * @return The flight recorder, or {@code null} if none is set.
+     */
+    public FlightRecorder getFlightRecorder() {
+        return flightRecorder;
+    }
+
+    /**
+     * Enables or disables collapsing of identical consecutive messages into
+     * "Last message repeated N times." summaries.
+     *
+     * @param enabled {@code true} to suppress repeated messages.
+     */
+    public void setRepeatSuppression(boolean enabled) {
+        RepeatSuppressor previous = this.repeatSuppressor;
+        this.repeatSuppressor = enabled ? (previous != null ? previous : new RepeatSuppressor()) : null;
+        if (!enabled && previous != null) {
+            previous.flush(this::emitRepeatSummary);
+        }
+    }
+
+    /**
+     * Emits the summary of the pending run of repeated messages, if any.
+     */
+    public void flushRepeats() {
+        RepeatSuppressor repeats = repeatSuppressor;
+        if (repeats != null) {
+            repeats.flush(this::emitRepeatSummary);
+        }
     }
 
     /**
@@ -151,20 +721,30 @@ public class Logger implements ILogger {
      */
     @Override
     public LogEntry getLastLog() {
-        if (logs == null || logs.isEmpty()) {
-            return null;
+        synchronized (logs) {
+            if (logs.isEmpty()) {
+                return null;
+            }
+            return logs.get(logs.size() - 1);
         }
-        return logs.get(logs.size() - 1);
     }
 
     /**
      * Retrieves all log entries recorded by the logger.
+     * The list is a snapshot, so it can be iterated while other threads keep logging.
      * 
      * @return A list containing all {@link LogEntry} instances.
      */
     @Override
     public List<LogEntry> getAllLogs() {
-        return logs;
+        return new ArrayList<>(logs);
+    }
+
+    /**
+     * Removes all log entries recorded by the logger.
+     */
+    public void clearLogs() {
+        logs.clear();
     }
 
     /**
@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.theko.logger.config.LoggerConfiguration;
+
+/**
+ * A registry of named {@link Logger} instances arranged by package hierarchy.
+ * <p>
+ * A logger named {@code "com.shop.net"} is a child of {@code "com.shop"}, which is a child of
+ * {@code "com"}, which is a child of the root logger (named {@code ""}). Loggers inherit their
+ * level and {@link LoggerOutput} from the nearest ancestor which has one set, so
+ * {@code com.shop.net} can log at DEBUG while {@code com.shop.render} stays at WARN:
+ * <pre>
+ * LoggerFactory.getLogger("com.shop.net").setLevel(LogLevel.DEBUG);
+ * LoggerFactory.getLogger("com.shop.render").setLevel(LogLevel.WARN);
+ * </pre>
+ * The root logger writes to {@link System#out} at {@link LogLevel#INFO} by default.
+ */
+public class LoggerFactory {
+    private static final Map<String, Logger> loggers = new ConcurrentHashMap<>();
+    private static final Logger root;
+
+    // Static initializer to set up the root logger
+    static {
+        LoggerOutput rootOutput = new LoggerOutput(LogLevel.DEBUG); // Levels are decided by loggers
+        rootOutput.addOutputStream(System.out);
+        root = new Logger("", null, rootOutput, 1);
+        root.setLevel(LogLevel.INFO);
+        loggers.put("", root);
+
+        LoggerConfiguration.bootstrap(); // Applies the startup configuration file, if any
+    }
+
+    private LoggerFactory () {
+        throw new IllegalAccessError("Cannot make instance of LoggerFactory!");
+    }
+
+    /**
+     * Gets the root logger of the hierarchy.
+     *
+     * @return The root {@link Logger}.
+     */
+    public static Logger getRootLogger() {
+        return root;
+    }
+
+    /**
+     * Gets the logger with the specified name, creating it and its missing ancestors if necessary.
+     *
+     * @param name The dot-separated hierarchical name, e.g. {@code "com.shop.net"}.
+     * @return The {@link Logger} with the specified name.
+     */
+    public static Logger getLogger(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Logger name must not be null.");
+        }
+        Logger logger = loggers.get(name);
+        if (logger != null) {
+            return logger;
+        }
+
+        Logger parent = getLogger(parentName(name));
+        return loggers.computeIfAbsent(name, n -> new Logger(n, parent, null, 1));
+    }
+
+    /**
+     * Gets the logger named after the specified class.
+     *
+     * @param clazz The class whose fully qualified name is used as the logger name.
+     * @return The {@link Logger} named after the class.
+     */
+    public static Logger getLogger(Class<?> clazz) {
+        return getLogger(clazz.getName());
+    }
+
+    /**
+     * Gets a snapshot of all loggers created so far, including the root logger.
+     *
+     * @return An unmodifiable collection of the registered loggers.
+     */
+    public static Collection<Logger> getLoggers() {
+        return List.copyOf(loggers.values());
+    }
+
+    private static String parentName(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(0, dot);
+    }
+}
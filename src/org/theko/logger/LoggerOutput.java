@@ -26,31 +26,89 @@ package org.theko.logger;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+import org.theko.logger.appender.Appender;
+import org.theko.logger.appender.AppenderErrorHandler;
+import org.theko.logger.appender.ChannelAppender;
+import org.theko.logger.appender.ConsoleAppender;
+import org.theko.logger.appender.OutputStreamAppender;
+import org.theko.logger.jfr.JfrSupport;
+import org.theko.logger.jfr.LogEntryEvent;
+import org.theko.logger.jfr.SinkWriteEvent;
 
 /**
- * LoggerOutput is responsible for outputting log entries to multiple {@link OutputStream} objects.
+ * LoggerOutput is responsible for outputting log entries to multiple {@link Appender}s.
  * It filters log entries based on the preferred log level and formats them according to a specified pattern.
+ * {@link OutputStream}s and {@link WritableByteChannel}s are added through
+ * {@link OutputStreamAppender} and {@link ChannelAppender} adapters.
+ * <p>
+ * Each entry is rendered and UTF-8 encoded exactly once into a reusable per-thread buffer
+ * (see {@link LogEncoder}), which is then shared by all appenders.
+ * Batches of entries are handed to each appender in one call, which appenders supporting
+ * gathering writes, such as those of {@link GatheringByteChannel}s, write at once.
+ * Appender errors go to the {@link AppenderErrorHandler}.
+ * <p>
+ * All settings can be changed while logging is in progress. Encoding runs concurrently,
+ * but each entry or batch is written to the appenders under a lock, so lines from different
+ * threads never interleave, even on sinks that are not thread-safe. Thread-safe appenders
+ * are written outside the lock. Removing or replacing appenders waits for the writes still
+ * using them, so they can be stopped afterwards. In asynchronous mode
+ * entries are queued to a bounded queue and written by a background thread.
+ * <p>
+ * While a JFR recording has them enabled, a {@link LogEntryEvent} is committed for each
+ * written entry and a {@link SinkWriteEvent} for each write to the sinks.
  */
 public class LoggerOutput {
     
     /**
-     * The list of {@link OutputStream}s where log entries are written to.
+     * The list of {@link Appender}s where log entries are written to.
+     * Replaced as a whole when several appenders change at once.
+     */
+    protected volatile List<Appender> appenders;
+
+    /**
+     * The handler of errors raised by the appenders.
      */
-    protected List<OutputStream> outputStreams;
+    protected volatile AppenderErrorHandler errorHandler = AppenderErrorHandler.PRINT_STACK_TRACE;
     
     /**
      * The preferred log level. Only log entries with a level equal to or higher than this level will be output.
      */
-    protected LogLevel preferredLevel;
+    protected volatile LogLevel preferredLevel;
     
     /**
      * The pattern used to format the log entries.
      * The default pattern is "[-time<HH:mm:ss:SSS, UTC>] -type | [-class.-method] > -message".
      */
-    protected String pattern;
+    protected volatile String pattern;
+
+    private volatile LogPattern compiledPattern; // The pattern compiled once, used for every write
+
+    /**
+     * The renderer used for throwables attached to log entries.
+     */
+    protected volatile ThrowableRenderer throwableRenderer = ThrowableRenderer.DEFAULT;
+
+    private static final ThreadLocal<LogEncoder> encoders = ThreadLocal.withInitial(LogEncoder::new);
+
+    private volatile AsyncWriter asyncWriter; // Background writer, null in synchronous mode
+
+    private final Object writeLock = new Object(); // Keeps the bytes of one entry or batch together
+
+    // Held shared from taking the appender snapshot until the writes are done, exclusively to wait for them
+    private final ReentrantReadWriteLock inFlight = new ReentrantReadWriteLock();
 
     /**
      * Constructs a LoggerOutput instance with the specified output streams and preferred log level.
@@ -58,17 +116,20 @@ public class LoggerOutput {
      * @param preferredLevel the {@link LogLevel} representing the minimum level of logs to output.
      */
     public LoggerOutput(LogLevel preferredLevel) {
-        this.outputStreams = new ArrayList<>();
+        this.appenders = new CopyOnWriteArrayList<>();
         this.preferredLevel = preferredLevel;
-        this.pattern = "[-time<HH:mm:ss:SSS, UTC>] -type | [-class.-method] > -message";
+        this.pattern = LogFormatter.DEFAULT_OUTPUT;
+        this.compiledPattern = LogPattern.DEFAULT_OUTPUT;
     }
 
     /**
      * Sets the pattern used for formatting log entries.
      * 
      * @param pattern the new pattern to use for formatting log entries.
+     * @throws IllegalArgumentException If the pattern is null or empty.
      */
     public void setPattern(String pattern) {
+        this.compiledPattern = LogPattern.compile(pattern);
         this.pattern = pattern;
     }
 
@@ -81,6 +142,24 @@ public class LoggerOutput {
         this.preferredLevel = preferredLevel;
     }
 
+    /**
+     * Sets the renderer used for throwables attached to log entries.
+     * 
+     * @param throwableRenderer the {@link ThrowableRenderer} to use.
+     */
+    public void setThrowableRenderer(ThrowableRenderer throwableRenderer) {
+        this.throwableRenderer = throwableRenderer;
+    }
+
+    /**
+     * Gets the renderer used for throwables attached to log entries.
+     * 
+     * @return the {@link ThrowableRenderer} in use.
+     */
+    public ThrowableRenderer getThrowableRenderer() {
+        return throwableRenderer;
+    }
+
     /**
      * Gets the preferred log level.
      * 
@@ -99,13 +178,146 @@ public class LoggerOutput {
         return pattern;
     }
 
+    /**
+     * Adds an {@link Appender} and starts it. An appender that fails to start is
+     * reported to the error handler and not added.
+     * 
+     * @param appender the {@link Appender} to be added for logging.
+     */
+    public void addAppender(Appender appender) {
+        if (appender == null) {
+            return;
+        }
+        try {
+            appender.start();
+        } catch (IOException ioex) {
+            errorHandler.onError(appender, ioex);
+            return;
+        }
+        synchronized (writeLock) {
+            appenders.add(appender);
+        }
+    }
+
+    /**
+     * Checks if there are any {@link Appender}s, of any kind.
+     * 
+     * @return true if at least one appender is added, false otherwise.
+     */
+    public boolean containsAppender() {
+        return !appenders.isEmpty();
+    }
+
+    /**
+     * Removes an {@link Appender} without stopping it. Returns once writes that may still
+     * use the appender are done, so it can be stopped right away.
+     * 
+     * @param appender the {@link Appender} to be removed.
+     * @return true if the appender was removed, false if it was not added.
+     */
+    public boolean removeAppender(Appender appender) {
+        boolean removed;
+        synchronized (writeLock) {
+            removed = appenders.remove(appender);
+        }
+        awaitInFlightWrites();
+        return removed;
+    }
+
+    /**
+     * Gets the {@link Appender}s where log entries are being written.
+     * 
+     * @return an unmodifiable snapshot of the appenders.
+     */
+    public List<Appender> getAppenders() {
+        return Collections.unmodifiableList(new ArrayList<>(appenders));
+    }
+
+    /**
+     * Sets the handler of errors raised by the appenders.
+     * 
+     * @param errorHandler the {@link AppenderErrorHandler} to use, or {@code null} to print stack traces.
+     */
+    public void setErrorHandler(AppenderErrorHandler errorHandler) {
+        this.errorHandler = errorHandler != null ? errorHandler : AppenderErrorHandler.PRINT_STACK_TRACE;
+    }
+
+    /**
+     * Gets the handler of errors raised by the appenders.
+     * 
+     * @return the {@link AppenderErrorHandler} in use.
+     */
+    public AppenderErrorHandler getErrorHandler() {
+        return errorHandler;
+    }
+
     /**
      * Gets the list of {@link OutputStream}s where log entries are being written.
+     * A {@link ConsoleAppender} counts as the {@link System#out} or {@link System#err}
+     * stream it writes to.
      * 
-     * @return the list of {@link OutputStream}s used for logging.
+     * @return an unmodifiable snapshot of the {@link OutputStream}s used for logging.
      */
     public List<OutputStream> getOutputStreams() {
-        return outputStreams;
+        List<OutputStream> streams = new ArrayList<>();
+        for (Appender appender : appenders) {
+            if (appender instanceof OutputStreamAppender) {
+                streams.add(((OutputStreamAppender) appender).getOutputStream());
+            } else if (appender instanceof ConsoleAppender) {
+                streams.add(((ConsoleAppender) appender).isStderr() ? System.err : System.out);
+            }
+        }
+        return Collections.unmodifiableList(streams);
+    }
+
+    /**
+     * Replaces all output streams, including {@link ConsoleAppender}s, at once, keeping the
+     * other appenders. Entries written
+     * concurrently go either to the old or to the new streams, never to a mix of both.
+     * 
+     * @param streams the new {@link OutputStream}s used for logging.
+     */
+    public void setOutputStreams(List<OutputStream> streams) {
+        List<Appender> added = new ArrayList<>();
+        for (OutputStream os : streams) {
+            if (os != null) {
+                added.add(new OutputStreamAppender(os));
+            }
+        }
+        replaceAppenders(LoggerOutput::isOutputStream, added);
+    }
+
+    /**
+     * Replaces the appenders matching a filter at once, keeping the other appenders. The new
+     * appenders are started, the removed ones are not stopped. Entries written concurrently go
+     * either to the old or to the new appenders, never to a mix of both. Returns once writes
+     * that may still use the removed appenders are done, so they can be stopped right away.
+     * An appender that fails to start is reported to the error handler and not added.
+     * 
+     * @param filter      selects the {@link Appender}s to remove.
+     * @param replacement the {@link Appender}s to add.
+     */
+    public void replaceAppenders(Predicate<? super Appender> filter, List<? extends Appender> replacement) {
+        List<Appender> started = new ArrayList<>();
+        for (Appender appender : replacement) {
+            try {
+                appender.start();
+                started.add(appender);
+            } catch (IOException ioex) {
+                errorHandler.onError(appender, ioex);
+            }
+        }
+        synchronized (writeLock) {
+            List<Appender> updated = new CopyOnWriteArrayList<>();
+            for (Appender appender : appenders) {
+                if (!filter.test(appender)) {
+                    updated.add(appender);
+                }
+            }
+            updated.addAll(started);
+            this.appenders = updated;
+        }
+        awaitInFlightWrites();
     }
 
     /**
@@ -115,15 +327,58 @@ public class LoggerOutput {
      */
     public void addOutputStream(OutputStream os) {
         if (os != null) {
-            outputStreams.add(os);
+            addAppender(new OutputStreamAppender(os));
         }
     }
 
     /**
-     * Removes all {@link OutputStream}s from the list.
+     * Adds a {@link WritableByteChannel} to the list of channels.
+     * Channels are expected to be blocking; writes are repeated until the whole entry is written.
+     * 
+     * @param channel the {@link WritableByteChannel} to be added for logging.
+     */
+    public void addChannel(WritableByteChannel channel) {
+        if (channel != null) {
+            addAppender(new ChannelAppender(channel));
+        }
+    }
+
+    /**
+     * Gets the list of {@link WritableByteChannel}s where log entries are being written.
+     * 
+     * @return an unmodifiable snapshot of the {@link WritableByteChannel}s used for logging.
+     */
+    public List<WritableByteChannel> getChannels() {
+        List<WritableByteChannel> channels = new ArrayList<>();
+        for (Appender appender : appenders) {
+            if (appender instanceof ChannelAppender) {
+                channels.add(((ChannelAppender) appender).getChannel());
+            }
+        }
+        return Collections.unmodifiableList(channels);
+    }
+
+    /**
+     * Removes all {@link WritableByteChannel}s from the list.
+     */
+    public void removeAllChannels() {
+        removeAppenders(appender -> appender instanceof ChannelAppender);
+    }
+
+    /**
+     * Checks if there are any {@link WritableByteChannel}s in the list.
+     * 
+     * @return true if the list contains at least one {@link WritableByteChannel}, false otherwise.
+     */
+    public boolean containsChannel() {
+        return !getChannels().isEmpty();
+    }
+
+    /**
+     * Removes all {@link OutputStream}s, including {@link ConsoleAppender}s, from the list.
      */
     public void removeAllOutputStreams() {
-        outputStreams.clear();
+        removeAppenders(LoggerOutput::isOutputStream);
     }
 
     /**
@@ -132,7 +387,7 @@ public class LoggerOutput {
      * @return true if the list contains at least one {@link OutputStream}, false otherwise.
      */
     public boolean containsOutputStream() {
-        return outputStreams != null && !outputStreams.isEmpty();
+        return !getOutputStreams().isEmpty();
     }
 
     /**
@@ -141,13 +396,65 @@ public class LoggerOutput {
      * @param os the {@link OutputStream} to be added for logging.
      */
     public void setSingleOutputStream(OutputStream os) {
-        outputStreams.clear();
-        outputStreams.add(os);
+        setOutputStreams(List.of(os));
+    }
+
+    private static boolean isOutputStream(Appender appender) {
+        return appender instanceof OutputStreamAppender || appender instanceof ConsoleAppender;
+    }
+
+    private void removeAppenders(Predicate<Appender> filter) {
+        synchronized (writeLock) {
+            appenders.removeIf(filter);
+        }
+        awaitInFlightWrites();
+    }
+
+    /**
+     * Waits until the writes that took their appender snapshot before now are done.
+     * Does not wait when called from a write, e.g. by an appender, which would never return.
+     */
+    private void awaitInFlightWrites() {
+        if (inFlight.getReadHoldCount() > 0) {
+            return;
+        }
+        inFlight.writeLock().lock();
+        inFlight.writeLock().unlock();
+    }
+
+    /**
+     * Enables or disables asynchronous mode. In asynchronous mode entries are
+     * queued and written by a background thread; producers only block when the queue is full.
+     * Entries queued before a switch are written before any entry logged after it.
+     * 
+     * @param async    true to enable asynchronous mode.
+     * @param capacity the capacity of the entry queue, used when enabling asynchronous mode.
+     */
+    public synchronized void setAsync(boolean async, int capacity) {
+        AsyncWriter previous = asyncWriter;
+        if (async && previous != null && previous.capacity == capacity) {
+            return;
+        }
+        if (previous != null) {
+            // Written before the switch, so entries keep their order across it
+            previous.shutdown();
+        }
+        this.asyncWriter = async ? new AsyncWriter(capacity) : null;
+    }
+
+    /**
+     * Checks if the output is in asynchronous mode.
+     * 
+     * @return true if entries are written by a background thread.
+     */
+    public boolean isAsync() {
+        return asyncWriter != null;
     }
 
     /**
      * Adds a log entry to all output streams if its level is equal to or higher than the preferred level.
      * The log entry is formatted using the specified pattern before being written to the output streams.
+     * In asynchronous mode the entry is only queued.
      * 
      * @param log the {@link LogEntry} to be added to the output.
      */
@@ -156,24 +463,309 @@ public class LoggerOutput {
             return;
         }
         if (log.level.ordinal() >= preferredLevel.ordinal()) {
-            String formatted = LogFormatter.format(log, pattern) + "\n";
-            byte[] bytes = formatted.getBytes(StandardCharsets.UTF_8);
-            for (OutputStream os : outputStreams) {
+            AsyncWriter writer = asyncWriter;
+            if (writer != null) {
+                writer.enqueue(log);
+            } else {
+                write(log); // Not flushed, buffered sinks flush when full, on flush() and on close()
+            }
+        }
+    }
+
+    /**
+     * Adds a batch of log entries to the output, skipping entries below the preferred level.
+     * In synchronous mode the batch is encoded at once and written to
+     * {@link GatheringByteChannel}s with gathering writes; in asynchronous mode it is queued.
+     * 
+     * @param logs the {@link LogEntry} batch to be added to the output.
+     */
+    public void addToOutput(List<LogEntry> logs) {
+        AsyncWriter writer = asyncWriter;
+        List<LogEntry> accepted = new ArrayList<>(logs.size());
+        for (LogEntry log : logs) {
+            if (log != null && log.level.ordinal() >= preferredLevel.ordinal()) {
+                if (writer != null) {
+                    writer.enqueue(log);
+                } else {
+                    accepted.add(log);
+                }
+            }
+        }
+        if (!accepted.isEmpty()) {
+            write(accepted);
+            flush();
+        }
+    }
+
+    /**
+     * Adds a batch of log entries to the output regardless of the preferred level.
+     * Used to dump the entries kept by a {@link FlightRecorder}.
+     * 
+     * @param logs the {@link LogEntry} batch to be added to the output.
+     */
+    void addToOutputUnfiltered(List<LogEntry> logs) {
+        AsyncWriter writer = asyncWriter;
+        if (writer != null) {
+            for (LogEntry log : logs) {
+                writer.enqueue(log);
+            }
+        } else {
+            write(logs);
+            flush();
+        }
+    }
+
+    /**
+     * Formats and writes a batch of log entries to all appenders.
+     * Each entry is encoded into its own buffer, and each appender receives the whole batch
+     * in one {@link Appender#append(ByteBuffer[], int, int)} call; {@link GatheringByteChannel}s
+     * write it with one {@link GatheringByteChannel#write(ByteBuffer[], int, int)} call.
+     * 
+     * @param logs the {@link LogEntry} batch to be written.
+     */
+    protected void write(List<LogEntry> logs) {
+        if (logs.size() == 1) {
+            write(logs.get(0));
+            return;
+        }
+        int count = logs.size();
+        boolean jfr = JfrSupport.isActive();
+        if (jfr && LogEntryEvent.isRecording()) {
+            for (LogEntry log : logs) {
+                recordEntry(log);
+            }
+        }
+        ByteBuffer[] encoded = encoders.get().encodeBatch(logs, compiledPattern, throwableRenderer);
+        SinkWriteEvent event = jfr ? new SinkWriteEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        int sinks;
+        inFlight.readLock().lock();
+        try {
+            List<Appender> targets = appenders;
+            sinks = targets.size();
+            synchronized (writeLock) {
+                for (Appender appender : targets) {
+                    if (!appender.isThreadSafe()) {
+                        append(appender, logs, encoded, count);
+                    }
+                }
+            }
+            for (Appender appender : targets) {
+                if (appender.isThreadSafe()) {
+                    append(appender, logs, encoded, count);
+                }
+            }
+        } finally {
+            inFlight.readLock().unlock();
+        }
+        if (event != null && event.shouldCommit()) {
+            long bytes = 0;
+            for (int i = 0; i < count; i++) {
+                bytes += encoded[i].limit();
+            }
+            event.setWrite(count, bytes, sinks);
+            event.commit();
+        }
+    }
+
+    private void append(Appender appender, List<LogEntry> logs, ByteBuffer[] encoded, int count) {
+        for (int i = 0; i < count; i++) {
+            encoded[i].position(0);
+        }
+        try {
+            appender.append(logs, encoded, 0, count);
+        } catch (IOException ioex) {
+            errorHandler.onError(appender, ioex);
+        } catch (RuntimeException ex) {
+            errorHandler.onError(appender, new IOException("Appender failed", ex));
+        }
+    }
+
+    /**
+     * Formats and writes a log entry to all appenders.
+     * An attached throwable is rendered on the lines following the entry.
+     * 
+     * @param log the {@link LogEntry} to be written.
+     */
+    protected void write(LogEntry log) {
+        boolean jfr = JfrSupport.isActive();
+        if (jfr) {
+            recordEntry(log);
+        }
+        ByteBuffer encoded = encoders.get().encode(log, compiledPattern, throwableRenderer);
+        SinkWriteEvent event = jfr ? new SinkWriteEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        int sinks;
+        inFlight.readLock().lock();
+        try {
+            List<Appender> targets = appenders;
+            sinks = targets.size();
+            synchronized (writeLock) {
+                for (Appender appender : targets) {
+                    if (!appender.isThreadSafe()) {
+                        append(appender, log, encoded);
+                    }
+                }
+            }
+            for (Appender appender : targets) {
+                if (appender.isThreadSafe()) {
+                    append(appender, log, encoded);
+                }
+            }
+        } finally {
+            inFlight.readLock().unlock();
+        }
+        if (event != null && event.shouldCommit()) {
+            event.setWrite(1, encoded.limit(), sinks);
+            event.commit();
+        }
+    }
+
+    private void append(Appender appender, LogEntry log, ByteBuffer encoded) {
+        encoded.position(0);
+        try {
+            appender.append(log, encoded);
+        } catch (IOException ioex) {
+            errorHandler.onError(appender, ioex);
+        } catch (RuntimeException ex) {
+            errorHandler.onError(appender, new IOException("Appender failed", ex));
+        }
+    }
+
+    /**
+     * Commits the JFR event of a written entry, with the time it waited in the queue.
+     */
+    private static void recordEntry(LogEntry log) {
+        long enqueued = log.enqueuedNanos;
+        if (enqueued != 0) {
+            log.enqueuedNanos = 0;
+        }
+        LogEntryEvent.commit(log, enqueued == 0 ? 0 : System.nanoTime() - enqueued);
+    }
+
+    /**
+     * Flushes all output streams.
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            for (Appender appender : appenders) {
                 try {
-                    os.write(bytes);
+                    appender.flush();
                 } catch (IOException ioex) {
-                    ioex.printStackTrace();
+                    errorHandler.onError(appender, ioex);
                 }
             }
         }
     }
 
+    /**
+     * Stops asynchronous mode, writing the queued entries, flushes and stops all appenders.
+     */
     public void close() {
-        for (OutputStream os : outputStreams) {
+        setAsync(false, 0);
+        flush();
+        for (Appender appender : appenders) {
             try {
-                os.close();
+                appender.stop();
             } catch (IOException ioex) {
-                ioex.printStackTrace();
+                errorHandler.onError(appender, ioex);
+            }
+        }
+    }
+
+    /**
+     * Background writer draining a bounded queue of log entries in batches.
+     */
+    private class AsyncWriter implements Runnable {
+        private static final int MAX_BATCH_SIZE = 1024;
+        private static final long POLL_MILLIS = 50; // Longest delay before a shutdown is noticed
+
+        private final BlockingQueue<LogEntry> queue;
+        private final List<LogEntry> batch = new ArrayList<>();
+        private final int capacity;
+        private final Thread thread;
+        private volatile boolean stopped;
+
+        AsyncWriter(int capacity) {
+            this.capacity = capacity;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this, "LoggerOutput-AsyncWriter");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        void enqueue(LogEntry log) {
+            log.enqueuedNanos = JfrSupport.isActive() && LogEntryEvent.isRecording() ? System.nanoTime() : 0;
+            try {
+                queue.put(log);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                write(log); // Do not lose the entry
+                return;
+            }
+            if (stopped) {
+                drain(); // The writer may have exited before this entry was queued
+            }
+        }
+
+        @Override
+        public void run() {
+            while (!stopped) {
+                try {
+                    LogEntry log = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (log == null) {
+                        continue;
+                    }
+                    batch.add(log);
+                    queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                    writeBatch(batch);
+                    if (queue.isEmpty()) {
+                        flush();
+                    }
+                } catch (InterruptedException e) {
+                    // Only shutdown stops the writer
+                }
+            }
+            drain();
+        }
+
+        private synchronized void drain() {
+            List<LogEntry> pending = new ArrayList<>();
+            while (queue.drainTo(pending, MAX_BATCH_SIZE) > 0) {
+                writeBatch(pending);
+            }
+            flush();
+        }
+
+        /**
+         * Writes and clears a batch. A batch that cannot be written, e.g. because an entry
+         * cannot be formatted, is reported to the error handler, so the writer never dies
+         * and producers never block on a queue nobody drains.
+         */
+        private void writeBatch(List<LogEntry> logs) {
+            try {
+                write(logs);
+            } catch (RuntimeException ex) {
+                errorHandler.onError(null, new IOException("Cannot write " + logs.size() + " log entries", ex));
+            } finally {
+                logs.clear();
+            }
+        }
+
+        /**
+         * Stops the writer and waits until the queued entries are written. The thread is not
+         * interrupted, since an interrupt during a write closes interruptible channels for good.
+         */
+        void shutdown() {
+            stopped = true;
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
     }
@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders throwables into compact text similar to {@link Throwable#printStackTrace()}.
+ * <p>
+ * Rendering can be limited to a number of frames per throwable and a number of causes.
+ * Frames which a cause has in common with the throwable enclosing it are elided
+ * as {@code "... N more"}. Rendered frames are cached, so exception storms
+ * repeating the same stack do not rebuild the same frame strings over and over.
+ */
+public class ThrowableRenderer {
+    /**
+     * The default renderer, limited to 64 frames per throwable and 8 causes.
+     */
+    public static final ThrowableRenderer DEFAULT = new ThrowableRenderer(64, 8);
+
+    /**
+     * Maximum number of cached frames. When exceeded, the cache is cleared.
+     */
+    private static final int MAX_CACHED_FRAMES = 8192;
+
+    private static final ConcurrentHashMap<StackTraceElement, String> frameCache = new ConcurrentHashMap<>();
+
+    private final int maxFrames;
+    private final int maxCauses;
+
+    /**
+     * Constructs a throwable renderer.
+     *
+     * @param maxFrames Maximum number of frames rendered for each throwable.
+     * @param maxCauses Maximum number of causes rendered below the top-level throwable.
+     * @throws IllegalArgumentException If a limit is negative.
+     */
+    public ThrowableRenderer(int maxFrames, int maxCauses) {
+        if (maxFrames < 0 || maxCauses < 0) {
+            throw new IllegalArgumentException("Limits must not be negative.");
+        }
+        this.maxFrames = maxFrames;
+        this.maxCauses = maxCauses;
+    }
+
+    /**
+     * Renders a throwable with its causes and suppressed throwables.
+     *
+     * @param throwable The throwable to render.
+     * @return The rendered text, each line terminated by a line feed.
+     */
+    public String render(Throwable throwable) {
+        StringBuilder out = new StringBuilder(512);
+        render(throwable, out);
+        return out.toString();
+    }
+
+    /**
+     * Renders a throwable with its causes and suppressed throwables into a builder.
+     *
+     * @param throwable The throwable to render.
+     * @param out       The builder to append to.
+     */
+    public void render(Throwable throwable, StringBuilder out) {
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        renderThrowable(throwable, new StackTraceElement[0], "", "", out, seen, 0);
+    }
+
+    private void renderThrowable(Throwable throwable, StackTraceElement[] enclosing, String caption,
+                                 String prefix, StringBuilder out, Set<Throwable> seen, int causeDepth) {
+        if (!seen.add(throwable)) {
+            out.append(prefix).append(caption).append("[CIRCULAR REFERENCE: ").append(throwable).append("]\n");
+            return;
+        }
+        out.append(prefix).append(caption).append(throwable).append('\n');
+
+        StackTraceElement[] trace = throwable.getStackTrace();
+        int m = trace.length - 1;
+        int n = enclosing.length - 1;
+        while (m >= 0 && n >= 0 && trace[m].equals(enclosing[n])) {
+            m--;
+            n--;
+        }
+        int unique = m + 1;
+        int rendered = Math.min(unique, maxFrames);
+        for (int i = 0; i < rendered; i++) {
+            out.append(prefix).append(frame(trace[i]));
+        }
+        int elided = trace.length - rendered;
+        if (elided > 0) {
+            out.append(prefix).append("\t... ").append(elided).append(" more\n");
+        }
+
+        for (Throwable suppressed : throwable.getSuppressed()) {
+            renderThrowable(suppressed, trace, "Suppressed: ", prefix + "\t", out, seen, causeDepth);
+        }
+
+        Throwable cause = throwable.getCause();
+        if (cause != null) {
+            if (causeDepth >= maxCauses) {
+                out.append(prefix).append("Caused by: ").append(cause).append(" (further causes omitted)\n");
+            } else {
+                renderThrowable(cause, trace, "Caused by: ", prefix, out, seen, causeDepth + 1);
+            }
+        }
+    }
+
+    private static String frame(StackTraceElement element) {
+        String frame = frameCache.get(element);
+        if (frame == null) {
+            if (frameCache.size() >= MAX_CACHED_FRAMES) {
+                frameCache.clear();
+            }
+            frame = "\tat " + element + "\n";
+            frameCache.put(element, frame);
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.appender;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.theko.logger.LogEntry;
+import org.theko.logger.LogLevel;
+
+/**
+ * A destination for encoded log entries, such as a file, a socket or the console.
+ * <p>
+ * A {@link org.theko.logger.LoggerOutput} encodes each entry once and hands the same
+ * bytes to all of its appenders. An entry arrives as a {@link ByteBuffer} holding exactly
+ * one line between its position and its limit; the appender must consume all of it before
+ * returning, and must not keep a reference to it, since the buffer is reused.
+ * The output calls the entry-aware variants of {@code append}, which by default pass the
+ * level on to the level-aware variants. Appenders that decorate entries by level, such as
+ * {@link ConsoleAppender}, override the level-aware ones; appenders that need other fields
+ * of the entry, such as its time, override the entry-aware ones.
+ * <p>
+ * The capability flags tell the output how to drive the appender:
+ * <ul>
+ *   <li>{@link #isThreadSafe()}: appends are atomic on their own, so the output does not
+ *       serialize them under its write lock.</li>
+ *   <li>{@link #supportsGatheringWrites()}: {@link #append(ByteBuffer[], int, int)} writes a
+ *       whole batch with one call to the underlying sink.</li>
+ *   <li>{@link #isDurable()}: a completed {@link #flush()} means the bytes survive a crash of the process.</li>
+ * </ul>
+ */
+public interface Appender {
+    /**
+     * Prepares the appender for use. Called once when the appender is added to an output.
+     *
+     * @throws IOException If the sink cannot be opened.
+     */
+    default void start() throws IOException {
+        // Nothing to prepare by default
+    }
+
+    /**
+     * Appends one encoded entry.
+     *
+     * @param entry The bytes of the entry, from its position to its limit.
+     * @throws IOException If the entry cannot be written.
+     */
+    void append(ByteBuffer entry) throws IOException;
+
+    /**
+     * Appends a batch of encoded entries, in order.
+     * The default implementation appends the entries one by one.
+     *
+     * @param entries The buffers holding the entries.
+     * @param offset  The index of the first entry to append.
+     * @param count   The number of entries to append.
+     * @throws IOException If the entries cannot be written.
+     */
+    default void append(ByteBuffer[] entries, int offset, int count) throws IOException {
+        for (int i = offset; i < offset + count; i++) {
+            append(entries[i]);
+        }
+    }
+
+    /**
+     * Appends one encoded entry together with its level.
+     * The default implementation ignores the level.
+     *
+     * @param level The level of the entry.
+     * @param entry The bytes of the entry, from its position to its limit.
+     * @throws IOException If the entry cannot be written.
+     */
+    default void append(LogLevel level, ByteBuffer entry) throws IOException {
+        append(entry);
+    }
+
+    /**
+     * Appends a batch of encoded entries together with their levels, in order.
+     * The default implementation ignores the levels.
+     *
+     * @param levels  The levels of the entries, at the same indices as the entries.
+     * @param entries The buffers holding the entries.
+     * @param offset  The index of the first entry to append.
+     * @param count   The number of entries to append.
+     * @throws IOException If the entries cannot be written.
+     */
+    default void append(LogLevel[] levels, ByteBuffer[] entries, int offset, int count) throws IOException {
+        append(entries, offset, count);
+    }
+
+    /**
+     * Appends one encoded entry together with the log entry it was encoded from.
+     * The default implementation passes only the level on.
+     *
+     * @param log   The log entry.
+     * @param entry The bytes of the entry, from its position to its limit.
+     * @throws IOException If the entry cannot be written.
+     */
+    default void append(LogEntry log, ByteBuffer entry) throws IOException {
+        append(log.getLevel(), entry);
+    }
+
+    /**
+     * Appends a batch of encoded entries together with the log entries they were encoded from, in order.
+     * The default implementation passes only the levels on.
+     *
+     * @param logs    The log entries, at the same indices as the encoded entries.
+     * @param entries The buffers holding the encoded entries.
+     * @param offset  The index of the first entry to append.
+     * @param count   The number of entries to append.
+     * @throws IOException If the entries cannot be written.
+     */
+    default void append(List<LogEntry> logs, ByteBuffer[] entries, int offset, int count) throws IOException {
+        LogLevel[] levels = new LogLevel[offset + count];
+        for (int i = offset; i < offset + count; i++) {
+            levels[i] = logs.get(i).getLevel();
+        }
+        append(levels, entries, offset, count);
+    }
+
+    /**
+     * Flushes the entries appended so far to the sink.
+     *
+     * @throws IOException If the sink cannot be flushed.
+     */
+    default void flush() throws IOException {
+        // Nothing buffered by default
+    }
+
+    /**
+     * Flushes and releases the sink. Called when the output is closed.
+     *
+     * @throws IOException If the sink cannot be closed.
+     */
+    default void stop() throws IOException {
+        flush();
+    }
+
+    /**
+     * Checks if appends may be called concurrently, each one written atomically.
+     *
+     * @return true if the appender is thread-safe, false by default.
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
+    /**
+     * Checks if a batch append is written with a single call to the sink.
+     *
+     * @return true if gathering writes are supported, false by default.
+     */
+    default boolean supportsGatheringWrites() {
+        return false;
+    }
+
+    /**
+     * Checks if flushed entries survive a crash of the process.
+     *
+     * @return true if the appender is durable, false by default.
+     */
+    default boolean isDurable() {
+        return false;
+    }
+}
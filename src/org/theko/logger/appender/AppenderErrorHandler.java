@@ -0,0 +1,49 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.appender;
+
+import java.io.IOException;
+
+/**
+ * Callback for the errors of an {@link Appender}. Logging does not fail because a
+ * sink failed; the error is reported here instead, and the entry is lost for that sink.
+ * Runtime exceptions thrown by an appender are reported wrapped in an {@link IOException}.
+ */
+@FunctionalInterface
+public interface AppenderErrorHandler {
+    /**
+     * Prints the stack trace of the error, the behavior of outputs without a handler.
+     */
+    AppenderErrorHandler PRINT_STACK_TRACE = (appender, error) -> error.printStackTrace();
+
+    /**
+     * Handles an error raised by an appender.
+     *
+     * @param appender The appender that failed, or {@code null} if the entries could not be
+     *                 formatted by an asynchronous writer and were lost for every appender.
+     * @param error    The error it raised.
+     */
+    void onError(Appender appender, IOException error);
+}
@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.appender;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Adapts a {@link WritableByteChannel} to the {@link Appender} interface.
+ * Channels are expected to be blocking; writes are repeated until the whole entry is written.
+ * Batches are written to {@link GatheringByteChannel}s with gathering writes.
+ */
+public class ChannelAppender implements Appender {
+    private final WritableByteChannel channel;
+
+    /**
+     * Creates an appender writing to a channel.
+     *
+     * @param channel The channel to write to.
+     */
+    public ChannelAppender(WritableByteChannel channel) {
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel cannot be null.");
+        }
+        this.channel = channel;
+    }
+
+    /**
+     * Gets the adapted channel.
+     *
+     * @return The channel.
+     */
+    public WritableByteChannel getChannel() {
+        return channel;
+    }
+
+    @Override
+    public void append(ByteBuffer entry) throws IOException {
+        while (entry.hasRemaining()) {
+            channel.write(entry);
+        }
+    }
+
+    @Override
+    public void append(ByteBuffer[] entries, int offset, int count) throws IOException {
+        if (!(channel instanceof GatheringByteChannel)) {
+            Appender.super.append(entries, offset, count);
+            return;
+        }
+        GatheringByteChannel gathering = (GatheringByteChannel) channel;
+        long remaining = 0;
+        for (int i = offset; i < offset + count; i++) {
+            remaining += entries[i].remaining();
+        }
+        int end = offset + count;
+        while (remaining > 0) {
+            remaining -= gathering.write(entries, offset, end - offset);
+            while (offset < end && !entries[offset].hasRemaining()) {
+                offset++; // Skip buffers written completely by a partial write
+            }
+        }
+    }
+
+    /**
+     * Closes the channel.
+     */
+    @Override
+    public void stop() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public boolean supportsGatheringWrites() {
+        return channel instanceof GatheringByteChannel;
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.appender;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.theko.logger.LogLevel;
+
+/**
+ * Writes entries to the standard output or error directly on its file descriptor,
+ * bypassing the synchronization, small buffer and autoflush of {@link PrintStream}.
+ * A {@link FileOutputStream} is used rather than a {@code FileChannel}, which would close
+ * the descriptor when a writing thread is interrupted.
+ * <p>
+ * Entries are collected in a large buffer and written with one system call at the end of
+ * each append call, or earlier when the buffer is full. A batch from the asynchronous writer
+ * therefore reaches the console at once, while an entry written synchronously appears
+ * immediately, without waiting for a {@link #flush()}. Entries larger than the buffer are
+ * written directly.
+ * <p>
+ * Optionally each entry is colored by level with ANSI escape sequences, prepared once per
+ * {@link LogLevel}. Other users of {@link System#out} or {@link System#err} stay safe: before
+ * writing, the appender flushes the matching {@link PrintStream} and holds its lock, so lines
+ * never interleave and keep their order. Stopping the appender flushes it but leaves the
+ * descriptor open.
+ */
+public class ConsoleAppender implements Appender {
+    /**
+     * The default buffer size in bytes.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] NO_COLOR = new byte[0];
+    private static final byte[] RESET = ansi("0");
+    private static final byte[][] COLORS = new byte[LogLevel.values().length][];
+
+    static {
+        COLORS[LogLevel.DEBUG.ordinal()] = ansi("90");
+        COLORS[LogLevel.INFO.ordinal()] = ansi("32");
+        COLORS[LogLevel.WARN.ordinal()] = ansi("33");
+        COLORS[LogLevel.ERROR.ordinal()] = ansi("31");
+        COLORS[LogLevel.CRITICAL.ordinal()] = ansi("1;31");
+        COLORS[LogLevel.FATAL.ordinal()] = ansi("1;37;41");
+        COLORS[LogLevel.NONE.ordinal()] = NO_COLOR;
+    }
+
+    private final boolean stderr;
+    private final boolean colored;
+    private final FileOutputStream descriptor;
+    private final byte[] buffer;
+    private int count; // Number of bytes in the buffer
+
+    /**
+     * Creates an appender writing to the standard output with the default buffer size.
+     *
+     * @param colored Whether to color entries by level.
+     */
+    public ConsoleAppender(boolean colored) {
+        this(false, DEFAULT_BUFFER_SIZE, colored);
+    }
+
+    /**
+     * Creates an appender writing to the standard output or error.
+     *
+     * @param stderr     true to write to the standard error, false for the standard output.
+     * @param bufferSize The buffer size in bytes.
+     * @param colored    Whether to color entries by level.
+     */
+    public ConsoleAppender(boolean stderr, int bufferSize, boolean colored) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive.");
+        }
+        this.stderr = stderr;
+        this.colored = colored;
+        // Never closed: it only wraps the descriptor, which stays open
+        this.descriptor = new FileOutputStream(stderr ? FileDescriptor.err : FileDescriptor.out);
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Checks if the console likely understands ANSI colors: the JVM is attached to a terminal,
+     * {@code TERM} is not {@code dumb}, and {@code NO_COLOR} is not set.
+     *
+     * @return true if coloring is advisable, false otherwise.
+     */
+    public static boolean isColorSupported() {
+        return System.console() != null && !"dumb".equals(System.getenv("TERM")) && System.getenv("NO_COLOR") == null;
+    }
+
+    /**
+     * Checks if the appender writes to the standard error.
+     *
+     * @return true for the standard error, false for the standard output.
+     */
+    public boolean isStderr() {
+        return stderr;
+    }
+
+    /**
+     * Checks if entries are colored by level.
+     *
+     * @return true if entries are colored, false otherwise.
+     */
+    public boolean isColored() {
+        return colored;
+    }
+
+    @Override
+    public synchronized void append(ByteBuffer entry) throws IOException {
+        put(NO_COLOR, entry);
+        drain();
+    }
+
+    @Override
+    public synchronized void append(LogLevel level, ByteBuffer entry) throws IOException {
+        put(colored ? COLORS[level.ordinal()] : NO_COLOR, entry);
+        drain();
+    }
+
+    @Override
+    public synchronized void append(LogLevel[] levels, ByteBuffer[] entries, int offset, int count) throws IOException {
+        for (int i = offset; i < offset + count; i++) {
+            put(colored ? COLORS[levels[i].ordinal()] : NO_COLOR, entries[i]);
+        }
+        drain();
+    }
+
+    private void put(byte[] color, ByteBuffer entry) throws IOException {
+        byte[] reset = color.length > 0 ? RESET : NO_COLOR;
+        int size = entry.remaining();
+        int length = color.length + size + reset.length;
+        // The reset goes before the line break, so every colored line ends uncolored
+        boolean newline = reset.length > 0 && size > 0 && entry.get(entry.limit() - 1) == '\n';
+        if (newline) {
+            size--;
+        }
+        if (length > buffer.length - count) {
+            drain();
+        }
+        if (length > buffer.length) {
+            byte[] bytes = new byte[length];
+            System.arraycopy(color, 0, bytes, 0, color.length);
+            entry.get(bytes, color.length, size);
+            System.arraycopy(reset, 0, bytes, color.length + size, reset.length);
+            if (newline) {
+                bytes[length - 1] = '\n';
+                entry.get(); // Consumes the line break
+            }
+            write(bytes, length);
+            return;
+        }
+        System.arraycopy(color, 0, buffer, count, color.length);
+        entry.get(buffer, count + color.length, size);
+        System.arraycopy(reset, 0, buffer, count + color.length + size, reset.length);
+        if (newline) {
+            buffer[count + length - 1] = '\n';
+            entry.get(); // Consumes the line break
+        }
+        count += length;
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        drain();
+    }
+
+    private void drain() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        try {
+            write(buffer, count);
+        } finally {
+            count = 0;
+        }
+    }
+
+    /**
+     * Writes bytes to the descriptor, after anything already buffered in the matching
+     * {@link PrintStream} and without interleaving with its writes.
+     */
+    private void write(byte[] bytes, int length) throws IOException {
+        PrintStream stream = stderr ? System.err : System.out;
+        synchronized (stream) {
+            stream.flush();
+            descriptor.write(bytes, 0, length);
+        }
+    }
+
+    /**
+     * Each append and flush holds the lock of the appender, so the appender is thread-safe.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * Flushes the buffered entries. The descriptor is left open for other users.
+     */
+    @Override
+    public synchronized void stop() throws IOException {
+        drain();
+    }
+
+    private static byte[] ansi(String code) {
+        return ("\u001B[" + code + "m").getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.appender;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Adapts an {@link OutputStream} to the {@link Appender} interface.
+ * Entries are written one by one from the array backing their buffers.
+ */
+public class OutputStreamAppender implements Appender {
+    private final OutputStream outputStream;
+
+    /**
+     * Creates an appender writing to an output stream.
+     *
+     * @param outputStream The stream to write to.
+     */
+    public OutputStreamAppender(OutputStream outputStream) {
+        if (outputStream == null) {
+            throw new IllegalArgumentException("Output stream cannot be null.");
+        }
+        this.outputStream = outputStream;
+    }
+
+    /**
+     * Gets the adapted output stream.
+     *
+     * @return The output stream.
+     */
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    @Override
+    public void append(ByteBuffer entry) throws IOException {
+        int length = entry.remaining();
+        if (entry.hasArray()) {
+            outputStream.write(entry.array(), entry.arrayOffset() + entry.position(), length);
+            entry.position(entry.limit());
+        } else {
+            byte[] bytes = new byte[length];
+            entry.get(bytes);
+            outputStream.write(bytes);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        outputStream.flush();
+    }
+
+    /**
+     * Closes the output stream.
+     */
+    @Override
+    public void stop() throws IOException {
+        outputStream.close();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.archive;
+
+/**
+ * The columns of a log archive, in the order they are stored in a block.
+ */
+public enum ArchiveColumn {
+    /**
+     * Entry times, delta encoded.
+     */
+    TIME,
+
+    /**
+     * Log levels, one byte per entry.
+     */
+    LEVEL,
+
+    /**
+     * Thread names, dictionary encoded.
+     */
+    THREAD,
+
+    /**
+     * Caller class names, dictionary encoded.
+     */
+    CLASS,
+
+    /**
+     * Caller method names, dictionary encoded.
+     */
+    METHOD,
+
+    /**
+     * Caller source file names, dictionary encoded.
+     */
+    FILE,
+
+    /**
+     * Caller line numbers.
+     */
+    LINE,
+
+    /**
+     * Messages.
+     */
+    MESSAGE
+}
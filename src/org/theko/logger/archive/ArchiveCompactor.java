@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.theko.logger.LogEntry;
+import org.theko.logger.reader.LogReader;
+
+/**
+ * Converts closed text log files into columnar archives.
+ * <p>
+ * Each file is written to a {@code .tla} archive next to it. The newest file of a
+ * directory is considered active and left alone, as are files already archived.
+ * The text files are kept; removing them is up to the caller.
+ * <pre>
+ * java org.theko.logger.archive.ArchiveCompactor &lt;directory&gt; &lt;pattern&gt;
+ * </pre>
+ */
+public class ArchiveCompactor {
+    /**
+     * Suffix appended to the name of a compacted file.
+     */
+    public static final String SUFFIX = ".tla";
+
+    private ArchiveCompactor() {
+        throw new IllegalAccessError("Cannot make instance of ArchiveCompactor!");
+    }
+
+    /**
+     * Gets the archive path of a log file.
+     *
+     * @param file The log file.
+     * @return The archive path.
+     */
+    public static Path archivePathOf(Path file) {
+        return file.resolveSibling(file.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Compacts a single log file. The archive appears atomically when complete.
+     *
+     * @param reader The reader parsing the file.
+     * @param file   The log file.
+     * @param target The archive to create.
+     * @return The number of archived entries.
+     * @throws IOException If the file cannot be read or the archive cannot be written.
+     */
+    public static long compact(LogReader reader, Path file, Path target) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        long count;
+        try (ArchiveWriter writer = new ArchiveWriter(temp); Stream<LogEntry> entries = reader.read(file)) {
+            entries.forEach(log -> {
+                try {
+                    writer.write(log);
+                } catch (IOException ioex) {
+                    throw new UncheckedIOException(ioex);
+                }
+            });
+            count = writer.getEntryCount();
+        } catch (UncheckedIOException ex) {
+            Files.deleteIfExists(temp);
+            throw ex.getCause();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    /**
+     * Compacts the closed files of a reader's directory that have no archive yet.
+     *
+     * @param reader The reader of the directory.
+     * @return The number of compacted files.
+     * @throws IOException If a file cannot be compacted.
+     */
+    public static int compactClosed(LogReader reader) throws IOException {
+        List<Path> files = reader.getFiles();
+        Path active = null;
+        for (Path file : files) {
+            if (active == null || Files.getLastModifiedTime(file).compareTo(Files.getLastModifiedTime(active)) > 0) {
+                active = file;
+            }
+        }
+        int compacted = 0;
+        for (Path file : files) {
+            Path target = archivePathOf(file);
+            if (!file.equals(active) && !Files.exists(target)) {
+                compact(reader, file, target);
+                compacted++;
+            }
+        }
+        return compacted;
+    }
+
+    /**
+     * Compacts the closed files of a log directory.
+     *
+     * @param args The directory and the pattern the files were written with.
+     * @throws IOException If a file cannot be compacted.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java " + ArchiveCompactor.class.getName() + " <directory> <pattern>");
+            System.exit(2);
+        }
+        int compacted = compactClosed(new LogReader(Paths.get(args[0]), args[1]));
+        System.out.println("Compacted " + compacted + " file(s).");
+    }
+}
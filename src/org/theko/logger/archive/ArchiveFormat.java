@@ -0,0 +1,190 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encoding helpers and block metadata of the archive format.
+ * <p>
+ * File layout:
+ * <pre>
+ * int magic, int version
+ * blocks, each one the deflated columns in {@link ArchiveColumn} order
+ * int block count, per block: long offset, int count, long min time, long max time,
+ *     byte min level, byte max level, per column: int stored length, int raw length
+ * long footer offset, int magic
+ * </pre>
+ * Column encodings before deflating: times are a zigzag varint of the first time followed by
+ * zigzag varint deltas, levels are one ordinal byte each, strings are a varint dictionary size,
+ * the dictionary entries and a varint id per entry (0 for none), lines are zigzag varints and
+ * messages are varint-length-prefixed UTF-8.
+ */
+final class ArchiveFormat {
+    static final int MAGIC = 0x544C4341; // "TLCA"
+    static final int VERSION = 1;
+    static final int TRAILER_SIZE = 12;
+
+    private ArchiveFormat() {
+        throw new IllegalAccessError("Cannot make instance of ArchiveFormat!");
+    }
+
+    /**
+     * Location and statistics of a block.
+     */
+    static final class BlockInfo {
+        static final int COLUMNS = ArchiveColumn.values().length;
+
+        long offset;
+        int count;
+        long minTime;
+        long maxTime;
+        int minLevel;
+        int maxLevel;
+        final int[] storedLengths = new int[COLUMNS];
+        final int[] rawLengths = new int[COLUMNS];
+
+        long columnOffset(ArchiveColumn column) {
+            long position = offset;
+            for (int i = 0; i < column.ordinal(); i++) {
+                position += storedLengths[i];
+            }
+            return position;
+        }
+
+        void writeTo(DataOutput out) throws IOException {
+            out.writeLong(offset);
+            out.writeInt(count);
+            out.writeLong(minTime);
+            out.writeLong(maxTime);
+            out.writeByte(minLevel);
+            out.writeByte(maxLevel);
+            for (int i = 0; i < COLUMNS; i++) {
+                out.writeInt(storedLengths[i]);
+                out.writeInt(rawLengths[i]);
+            }
+        }
+
+        static BlockInfo readFrom(DataInput in) throws IOException {
+            BlockInfo block = new BlockInfo();
+            block.offset = in.readLong();
+            block.count = in.readInt();
+            block.minTime = in.readLong();
+            block.maxTime = in.readLong();
+            block.minLevel = in.readByte();
+            block.maxLevel = in.readByte();
+            for (int i = 0; i < COLUMNS; i++) {
+                block.storedLengths[i] = in.readInt();
+                block.rawLengths[i] = in.readInt();
+            }
+            return block;
+        }
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint in archive");
+    }
+
+    static void writeZigZag(ByteArrayOutputStream out, long value) {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readZigZag(ByteBuffer in) {
+        long value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in);
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    static byte[] deflate(byte[] raw, Deflater deflater) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        byte[] chunk = new byte[16 * 1024];
+        while (!deflater.finished()) {
+            int length = deflater.deflate(chunk);
+            out.write(chunk, 0, length);
+        }
+        return out.toByteArray();
+    }
+
+    static ByteBuffer inflate(byte[] stored, int rawLength, Inflater inflater) throws IOException {
+        inflater.reset();
+        inflater.setInput(stored);
+        byte[] raw = new byte[rawLength];
+        try {
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, rawLength - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != rawLength) {
+                throw new IOException("Truncated column in archive");
+            }
+        } catch (DataFormatException ex) {
+            throw new IOException("Corrupted column in archive", ex);
+        }
+        return ByteBuffer.wrap(raw);
+    }
+}
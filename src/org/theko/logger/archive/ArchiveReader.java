@@ -0,0 +1,280 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.Inflater;
+
+import org.theko.logger.LogEntry;
+import org.theko.logger.LogLevel;
+
+/**
+ * Reads a columnar archive written by {@link ArchiveWriter}.
+ * <p>
+ * A scan skips every block whose time or level range lies outside the query, and reads
+ * only the requested columns of the remaining blocks, plus the time and level columns of
+ * blocks that are only partly inside the query.
+ * <p>
+ * Counting errors per class and hour reads only three of the eight columns:
+ * <pre>
+ * Map&lt;String, Integer&gt; counts = new HashMap&lt;&gt;();
+ * try (ArchiveReader reader = ArchiveReader.open(path)) {
+ *     reader.scan(Long.MIN_VALUE, Long.MAX_VALUE, LogLevel.ERROR, EnumSet.of(ArchiveColumn.TIME, ArchiveColumn.CLASS),
+ *             row -&gt; counts.merge(row.getClassName() + " @" + row.getTime() / 3600000, 1, Integer::sum));
+ * }
+ * </pre>
+ */
+public class ArchiveReader implements Closeable {
+    private final FileChannel channel;
+    private final List<ArchiveFormat.BlockInfo> blocks;
+    private final Inflater inflater = new Inflater();
+    private long bytesRead;
+
+    private ArchiveReader(FileChannel channel, List<ArchiveFormat.BlockInfo> blocks) {
+        this.channel = channel;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Opens an archive.
+     *
+     * @param file The archive file.
+     * @return The reader.
+     * @throws IOException If the file cannot be read or is not an archive.
+     */
+    public static ArchiveReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < 8 + ArchiveFormat.TRAILER_SIZE) {
+                throw new IOException("Not a log archive: " + file);
+            }
+            ByteBuffer header = readFully(channel, 0, 8);
+            ByteBuffer trailer = readFully(channel, size - ArchiveFormat.TRAILER_SIZE, ArchiveFormat.TRAILER_SIZE);
+            long footerOffset = trailer.getLong();
+            if (header.getInt() != ArchiveFormat.MAGIC || trailer.getInt() != ArchiveFormat.MAGIC
+                    || footerOffset < 8 || footerOffset > size - ArchiveFormat.TRAILER_SIZE) {
+                throw new IOException("Not a log archive: " + file);
+            }
+            int version = header.getInt();
+            if (version != ArchiveFormat.VERSION) {
+                throw new IOException("Unsupported log archive version " + version + ": " + file);
+            }
+
+            ByteBuffer footer = readFully(channel, footerOffset, (int) (size - ArchiveFormat.TRAILER_SIZE - footerOffset));
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(footer.array()));
+            int count = in.readInt();
+            List<ArchiveFormat.BlockInfo> blocks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                blocks.add(ArchiveFormat.BlockInfo.readFrom(in));
+            }
+            return new ArchiveReader(channel, blocks);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Gets the number of blocks.
+     */
+    public int getBlockCount() {
+        return blocks.size();
+    }
+
+    /**
+     * Gets the number of entries.
+     */
+    public long getEntryCount() {
+        long count = 0;
+        for (ArchiveFormat.BlockInfo block : blocks) {
+            count += block.count;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of compressed column bytes read so far.
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Scans the entries in a time range at or above a level.
+     *
+     * @param from     The start time in milliseconds since the epoch, inclusive.
+     * @param to       The end time in milliseconds since the epoch, exclusive.
+     * @param minLevel The minimum level.
+     * @param columns  The columns the consumer reads.
+     * @param consumer Receives each matching row. The row object is reused.
+     * @return The number of matching rows.
+     * @throws IOException If the archive cannot be read.
+     */
+    public long scan(long from, long to, LogLevel minLevel, Set<ArchiveColumn> columns, Consumer<ArchiveRow> consumer) throws IOException {
+        ArchiveRow row = new ArchiveRow();
+        long matched = 0;
+        for (ArchiveFormat.BlockInfo block : blocks) {
+            if (block.maxTime < from || block.minTime >= to || block.maxLevel < minLevel.ordinal()) {
+                continue;
+            }
+            boolean filterTime = block.minTime < from || block.maxTime >= to;
+            boolean filterLevel = block.minLevel < minLevel.ordinal();
+
+            Set<ArchiveColumn> needed = columns.isEmpty() ? EnumSet.noneOf(ArchiveColumn.class) : EnumSet.copyOf(columns);
+            if (filterTime) {
+                needed.add(ArchiveColumn.TIME);
+            }
+            if (filterLevel) {
+                needed.add(ArchiveColumn.LEVEL);
+            }
+            row.clear();
+            for (ArchiveColumn column : needed) {
+                load(block, column, row);
+            }
+
+            for (int i = 0; i < block.count; i++) {
+                if (filterTime && (row.times[i] < from || row.times[i] >= to)) {
+                    continue;
+                }
+                if (filterLevel && row.levels[i] < minLevel.ordinal()) {
+                    continue;
+                }
+                row.index = i;
+                consumer.accept(row);
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Reads the entries in a time range at or above a level with all columns.
+     *
+     * @param from     The start time in milliseconds since the epoch, inclusive.
+     * @param to       The end time in milliseconds since the epoch, exclusive.
+     * @param minLevel The minimum level.
+     * @return The matching entries in archive order.
+     * @throws IOException If the archive cannot be read.
+     */
+    public List<LogEntry> read(long from, long to, LogLevel minLevel) throws IOException {
+        List<LogEntry> entries = new ArrayList<>();
+        scan(from, to, minLevel, EnumSet.allOf(ArchiveColumn.class), row -> entries.add(row.toLogEntry()));
+        return entries;
+    }
+
+    private void load(ArchiveFormat.BlockInfo block, ArchiveColumn column, ArchiveRow row) throws IOException {
+        int stored = block.storedLengths[column.ordinal()];
+        ByteBuffer compressed = readFully(channel, block.columnOffset(column), stored);
+        bytesRead += stored;
+        ByteBuffer in = ArchiveFormat.inflate(compressed.array(), block.rawLengths[column.ordinal()], inflater);
+        int count = block.count;
+        switch (column) {
+            case TIME:
+                long[] times = new long[count];
+                long previous = 0;
+                for (int i = 0; i < count; i++) {
+                    previous += ArchiveFormat.readZigZag(in);
+                    times[i] = previous;
+                }
+                row.times = times;
+                break;
+            case LEVEL:
+                byte[] levels = new byte[count];
+                in.get(levels);
+                row.levels = levels;
+                break;
+            case THREAD:
+                row.threads = decodeDictionary(in, count);
+                break;
+            case CLASS:
+                row.classes = decodeDictionary(in, count);
+                break;
+            case METHOD:
+                row.methods = decodeDictionary(in, count);
+                break;
+            case FILE:
+                row.files = decodeDictionary(in, count);
+                break;
+            case LINE:
+                int[] lines = new int[count];
+                for (int i = 0; i < count; i++) {
+                    lines[i] = (int) ArchiveFormat.readZigZag(in);
+                }
+                row.lines = lines;
+                break;
+            case MESSAGE:
+                String[] messages = new String[count];
+                for (int i = 0; i < count; i++) {
+                    messages[i] = ArchiveFormat.readString(in);
+                }
+                row.messages = messages;
+                break;
+        }
+    }
+
+    private static String[] decodeDictionary(ByteBuffer in, int count) {
+        int size = (int) ArchiveFormat.readVarLong(in);
+        List<String> dictionary = new ArrayList<>(size + 1);
+        dictionary.add(null);
+        for (int i = 0; i < size; i++) {
+            dictionary.add(ArchiveFormat.readString(in));
+        }
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = dictionary.get((int) ArchiveFormat.readVarLong(in));
+        }
+        return values;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of log archive");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        channel.close();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.archive;
+
+import org.theko.logger.CallerInfo;
+import org.theko.logger.LogEntry;
+import org.theko.logger.LogLevel;
+
+/**
+ * A row of a log archive, reused while an {@link ArchiveReader} scans it.
+ * Only the columns requested from the scan can be read, other getters throw
+ * an {@link IllegalStateException}.
+ */
+public final class ArchiveRow {
+    private static final LogLevel[] LEVELS = LogLevel.values();
+
+    long[] times;
+    byte[] levels;
+    String[] threads;
+    String[] classes;
+    String[] methods;
+    String[] files;
+    int[] lines;
+    String[] messages;
+    int index;
+
+    ArchiveRow() {
+    }
+
+    /**
+     * Gets the entry time in milliseconds since the epoch.
+     */
+    public long getTime() {
+        require(times, ArchiveColumn.TIME);
+        return times[index];
+    }
+
+    /**
+     * Gets the log level.
+     */
+    public LogLevel getLevel() {
+        require(levels, ArchiveColumn.LEVEL);
+        return LEVELS[levels[index]];
+    }
+
+    /**
+     * Gets the thread name, or {@code null} if it was unknown.
+     */
+    public String getThreadName() {
+        require(threads, ArchiveColumn.THREAD);
+        return threads[index];
+    }
+
+    /**
+     * Gets the caller class name, or {@code null} if it was unknown.
+     */
+    public String getClassName() {
+        require(classes, ArchiveColumn.CLASS);
+        return classes[index];
+    }
+
+    /**
+     * Gets the caller method name, or {@code null} if it was unknown.
+     */
+    public String getMethodName() {
+        require(methods, ArchiveColumn.METHOD);
+        return methods[index];
+    }
+
+    /**
+     * Gets the caller source file name, or {@code null} if it was unknown.
+     */
+    public String getFileName() {
+        require(files, ArchiveColumn.FILE);
+        return files[index];
+    }
+
+    /**
+     * Gets the caller line number, negative if it was unknown.
+     */
+    public int getLineNumber() {
+        require(lines, ArchiveColumn.LINE);
+        return lines[index];
+    }
+
+    /**
+     * Gets the message.
+     */
+    public String getMessage() {
+        require(messages, ArchiveColumn.MESSAGE);
+        return messages[index];
+    }
+
+    /**
+     * Converts the row into a log entry. Columns that were not read are left empty.
+     *
+     * @return A new log entry without stack trace.
+     */
+    public LogEntry toLogEntry() {
+        String className = classes != null ? classes[index] : null;
+        String methodName = methods != null ? methods[index] : null;
+        CallerInfo caller = null;
+        if (className != null || methodName != null) {
+            caller = new CallerInfo(new StackTraceElement(
+                    className != null ? className : "<unknown class>",
+                    methodName != null ? methodName : "<unknown method>",
+                    files != null ? files[index] : null, lines != null ? lines[index] : -1));
+        }
+        return new LogEntry(
+                levels != null ? LEVELS[levels[index]] : LogLevel.INFO,
+                messages != null ? messages[index] : "",
+                times != null ? times[index] : 0,
+                threads != null ? threads[index] : null,
+                caller,
+                null);
+    }
+
+    void clear() {
+        times = null;
+        levels = null;
+        threads = null;
+        classes = null;
+        methods = null;
+        files = null;
+        lines = null;
+        messages = null;
+    }
+
+    private static void require(Object column, ArchiveColumn name) {
+        if (column == null) {
+            throw new IllegalStateException("Column " + name + " was not read.");
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+
+import org.theko.logger.CallerInfo;
+import org.theko.logger.LogEntry;
+
+/**
+ * Writes log entries into a columnar archive.
+ * <p>
+ * Entries are collected into blocks of {@link #BLOCK_SIZE} entries. Each column of a block
+ * is encoded and deflated separately, and the block's time and level range is recorded in
+ * the footer, so {@link ArchiveReader} can skip whole blocks and read only the columns a
+ * query needs. Stack traces and throwables are not archived.
+ */
+public class ArchiveWriter implements Closeable {
+    /**
+     * Number of entries in a block.
+     */
+    public static final int BLOCK_SIZE = 8192;
+
+    private final FileChannel channel;
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    private final List<ArchiveFormat.BlockInfo> blocks = new ArrayList<>();
+    private final List<LogEntry> pending = new ArrayList<>(BLOCK_SIZE);
+    private long position;
+    private long entryCount;
+
+    /**
+     * Creates an archive, replacing an existing file.
+     *
+     * @param file The archive file.
+     * @throws IOException If the file cannot be created.
+     */
+    public ArchiveWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(8);
+        header.putInt(ArchiveFormat.MAGIC).putInt(ArchiveFormat.VERSION).flip();
+        write(header);
+    }
+
+    /**
+     * Adds an entry to the archive.
+     *
+     * @param log The entry to add.
+     * @throws IOException If a completed block cannot be written.
+     */
+    public void write(LogEntry log) throws IOException {
+        pending.add(log);
+        entryCount++;
+        if (pending.size() == BLOCK_SIZE) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Gets the number of entries added so far.
+     */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    private void writeBlock() throws IOException {
+        ArchiveFormat.BlockInfo block = new ArchiveFormat.BlockInfo();
+        block.offset = position;
+        block.count = pending.size();
+        block.minTime = Long.MAX_VALUE;
+        block.maxTime = Long.MIN_VALUE;
+        block.minLevel = Integer.MAX_VALUE;
+        block.maxLevel = Integer.MIN_VALUE;
+        for (LogEntry log : pending) {
+            block.minTime = Math.min(block.minTime, log.getTime());
+            block.maxTime = Math.max(block.maxTime, log.getTime());
+            block.minLevel = Math.min(block.minLevel, log.getLevel().ordinal());
+            block.maxLevel = Math.max(block.maxLevel, log.getLevel().ordinal());
+        }
+
+        for (ArchiveColumn column : ArchiveColumn.values()) {
+            byte[] raw = encode(column);
+            byte[] stored = ArchiveFormat.deflate(raw, deflater);
+            block.rawLengths[column.ordinal()] = raw.length;
+            block.storedLengths[column.ordinal()] = stored.length;
+            write(ByteBuffer.wrap(stored));
+        }
+        blocks.add(block);
+        pending.clear();
+    }
+
+    private byte[] encode(ArchiveColumn column) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(pending.size() * 4);
+        switch (column) {
+            case TIME:
+                long previous = 0;
+                for (LogEntry log : pending) {
+                    ArchiveFormat.writeZigZag(out, log.getTime() - previous);
+                    previous = log.getTime();
+                }
+                break;
+            case LEVEL:
+                for (LogEntry log : pending) {
+                    out.write(log.getLevel().ordinal());
+                }
+                break;
+            case THREAD:
+                encodeDictionary(out, LogEntry::getThreadName);
+                break;
+            case CLASS:
+                encodeDictionary(out, log -> caller(log) != null ? caller(log).getClassName() : null);
+                break;
+            case METHOD:
+                encodeDictionary(out, log -> caller(log) != null ? caller(log).getMethodName() : null);
+                break;
+            case FILE:
+                encodeDictionary(out, log -> caller(log) != null ? caller(log).getFileName() : null);
+                break;
+            case LINE:
+                for (LogEntry log : pending) {
+                    ArchiveFormat.writeZigZag(out, caller(log) != null ? caller(log).getLineNumber() : -1);
+                }
+                break;
+            case MESSAGE:
+                for (LogEntry log : pending) {
+                    ArchiveFormat.writeString(out, log.getMessage() != null ? log.getMessage() : "");
+                }
+                break;
+        }
+        return out.toByteArray();
+    }
+
+    private void encodeDictionary(ByteArrayOutputStream out, Function<LogEntry, String> field) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        int[] values = new int[pending.size()];
+        for (int i = 0; i < values.length; i++) {
+            String value = field.apply(pending.get(i));
+            if (value != null) {
+                Integer id = ids.get(value);
+                if (id == null) {
+                    dictionary.add(value);
+                    id = dictionary.size();
+                    ids.put(value, id);
+                }
+                values[i] = id;
+            }
+        }
+        ArchiveFormat.writeVarLong(out, dictionary.size());
+        for (String value : dictionary) {
+            ArchiveFormat.writeString(out, value);
+        }
+        for (int value : values) {
+            ArchiveFormat.writeVarLong(out, value);
+        }
+    }
+
+    private static CallerInfo caller(LogEntry log) {
+        CallerInfo caller = log.getCallerInfo();
+        return caller != null && caller.getStackTraceElement() != null ? caller : null;
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+    }
+
+    /**
+     * Writes the last block and the footer, and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!pending.isEmpty()) {
+                writeBlock();
+            }
+            long footerOffset = position;
+            ByteArrayOutputStream footer = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(footer);
+            out.writeInt(blocks.size());
+            for (ArchiveFormat.BlockInfo block : blocks) {
+                block.writeTo(out);
+            }
+            out.writeLong(footerOffset);
+            out.writeInt(ArchiveFormat.MAGIC);
+            write(ByteBuffer.wrap(footer.toByteArray()));
+        } finally {
+            deflater.end();
+            channel.close();
+        }
+    }
+}
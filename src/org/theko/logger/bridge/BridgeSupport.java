@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.bridge;
+
+import java.util.logging.Level;
+
+import org.theko.logger.LogLevel;
+import org.theko.logger.Logger;
+import org.theko.logger.LoggerFactory;
+
+/**
+ * Level mapping and caller lookup shared by the bridges.
+ */
+final class BridgeSupport {
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private BridgeSupport() {
+        throw new IllegalAccessError("Cannot make instance of BridgeSupport!");
+    }
+
+    /**
+     * Maps a {@link System.Logger.Level} onto a {@link LogLevel}.
+     *
+     * @param level The platform level.
+     * @return The mapped level, or {@code null} for {@code OFF}.
+     */
+    static LogLevel fromSystem(System.Logger.Level level) {
+        switch (level) {
+            case ALL:
+            case TRACE:
+            case DEBUG:
+                return LogLevel.DEBUG;
+            case INFO:
+                return LogLevel.INFO;
+            case WARNING:
+                return LogLevel.WARN;
+            case ERROR:
+                return LogLevel.ERROR;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Maps a {@code java.util.logging} level onto a {@link LogLevel}.
+     * {@code CONFIG} and finer levels become {@code DEBUG}, custom levels
+     * fall into the nearest standard level below them.
+     *
+     * @param level The JUL level.
+     * @return The mapped level, or {@code null} for {@code OFF}.
+     */
+    static LogLevel fromJul(Level level) {
+        int value = level.intValue();
+        if (value == Level.OFF.intValue()) {
+            return null;
+        } else if (value >= Level.SEVERE.intValue()) {
+            return LogLevel.ERROR;
+        } else if (value >= Level.WARNING.intValue()) {
+            return LogLevel.WARN;
+        } else if (value >= Level.INFO.intValue()) {
+            return LogLevel.INFO;
+        }
+        return LogLevel.DEBUG;
+    }
+
+    /**
+     * Maps a {@link LogLevel} onto the lowest JUL level that is mapped back to it.
+     *
+     * @param level The log level.
+     * @return The JUL level to use as a threshold.
+     */
+    static Level toJul(LogLevel level) {
+        switch (level) {
+            case DEBUG:
+                return Level.ALL;
+            case INFO:
+                return Level.INFO;
+            case WARN:
+                return Level.WARNING;
+            case NONE:
+                return Level.OFF;
+            default:
+                return Level.SEVERE;
+        }
+    }
+
+    /**
+     * Gets the most verbose effective level of all registered loggers.
+     *
+     * @return The lowest effective level in the hierarchy.
+     */
+    static LogLevel lowestEffectiveLevel() {
+        LogLevel lowest = LogLevel.NONE;
+        for (Logger logger : LoggerFactory.getLoggers()) {
+            LogLevel level = logger.getEffectiveLevel();
+            if (level.ordinal() < lowest.ordinal()) {
+                lowest = level;
+            }
+        }
+        return lowest;
+    }
+
+    /**
+     * Finds the first frame outside the bridges and the JDK logging front ends.
+     *
+     * @return The caller frame, or {@code null} if there is none.
+     */
+    static StackTraceElement findCaller() {
+        return STACK_WALKER.walk(frames -> frames
+                .dropWhile(frame -> isLoggingFrame(frame.getClassName()))
+                .findFirst()
+                .map(StackWalker.StackFrame::toStackTraceElement)
+                .orElse(null));
+    }
+
+    private static boolean isLoggingFrame(String className) {
+        return className.startsWith("org.theko.logger.bridge.")
+                || className.startsWith("java.lang.System$Logger")
+                || className.startsWith("java.util.logging.")
+                || className.startsWith("sun.util.logging.")
+                || className.startsWith("jdk.internal.logger.");
+    }
+}
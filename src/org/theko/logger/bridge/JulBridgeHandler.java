@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.bridge;
+
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.LogManager;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+import org.theko.logger.LogLevel;
+import org.theko.logger.Logger;
+import org.theko.logger.LoggerFactory;
+
+/**
+ * A {@code java.util.logging} handler that routes records into the
+ * {@link LoggerFactory} logger with the same name.
+ * <p>
+ * {@link #install()} replaces the handlers of the JUL root logger and sets its
+ * level from the most verbose effective level in the hierarchy, so records
+ * that no logger would accept are rejected by JUL before a {@link LogRecord}
+ * is even created. Call {@link #updateLevels()} after changing logger levels;
+ * {@code LoggerConfiguration} does so whenever it applies a configuration.
+ * <p>
+ * The caller is found by walking the stack past the JUL front end, which also
+ * yields the file and line that JUL itself does not record. Source names set
+ * explicitly with {@code logp} are used only when no caller frame is found.
+ */
+public class JulBridgeHandler extends Handler {
+    private static volatile boolean installed;
+
+    /**
+     * Holder of the handler, so checking {@link #isInstalled()} does not initialize JUL.
+     */
+    private static final class Holder {
+        static final JulBridgeHandler INSTANCE = new JulBridgeHandler();
+    }
+
+    private final SimpleFormatter messageFormatter = new SimpleFormatter();
+
+    /**
+     * Installs the bridge as the only handler of the JUL root logger.
+     *
+     * @return The installed handler.
+     */
+    public static synchronized JulBridgeHandler install() {
+        java.util.logging.Logger root = LogManager.getLogManager().getLogger("");
+        for (Handler handler : root.getHandlers()) {
+            root.removeHandler(handler);
+        }
+        root.addHandler(Holder.INSTANCE);
+        installed = true;
+        updateLevels();
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Removes the bridge from the JUL root logger.
+     */
+    public static synchronized void uninstall() {
+        LogManager.getLogManager().getLogger("").removeHandler(Holder.INSTANCE);
+        installed = false;
+    }
+
+    /**
+     * Checks whether the bridge is installed.
+     *
+     * @return true if {@link #install()} was called and the bridge was not uninstalled since.
+     */
+    public static boolean isInstalled() {
+        return installed;
+    }
+
+    /**
+     * Updates the JUL root level from the current logger levels.
+     */
+    public static void updateLevels() {
+        LogManager.getLogManager().getLogger("")
+                .setLevel(BridgeSupport.toJul(BridgeSupport.lowestEffectiveLevel()));
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (record == null) {
+            return;
+        }
+        LogLevel level = BridgeSupport.fromJul(record.getLevel());
+        if (level == null) {
+            return;
+        }
+        String name = record.getLoggerName();
+        Logger logger = LoggerFactory.getLogger(name == null ? "" : name);
+        if (!logger.isEnabled(level) || !isLoggable(record)) {
+            return;
+        }
+
+        String message;
+        try {
+            message = messageFormatter.formatMessage(record);
+        } catch (RuntimeException ex) {
+            reportError(null, ex, ErrorManager.FORMAT_FAILURE);
+            return;
+        }
+
+        StackTraceElement caller = BridgeSupport.findCaller();
+        if (caller == null && record.getSourceClassName() != null) {
+            caller = new StackTraceElement(record.getSourceClassName(),
+                    String.valueOf(record.getSourceMethodName()), null, -1);
+        }
+        logger.log(level, message, record.getThrown(), caller);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
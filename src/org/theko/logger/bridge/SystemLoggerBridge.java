@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.bridge;
+
+import java.text.MessageFormat;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.function.Supplier;
+
+import org.theko.logger.LogLevel;
+import org.theko.logger.Logger;
+
+/**
+ * A {@link System.Logger} that forwards to a named {@link Logger}.
+ * <p>
+ * {@link #isLoggable(Level)} reads only the logger's effective level, so
+ * callers guarding with it, like the JDK's own lazy loggers, pay nothing for
+ * disabled levels. Messages are localized and formatted after the level check.
+ */
+final class SystemLoggerBridge implements System.Logger {
+    private final Logger logger;
+
+    SystemLoggerBridge(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public String getName() {
+        return logger.getName();
+    }
+
+    @Override
+    public boolean isLoggable(Level level) {
+        LogLevel mapped = BridgeSupport.fromSystem(level);
+        return mapped != null && logger.isEnabled(mapped);
+    }
+
+    @Override
+    public void log(Level level, String msg) {
+        log(level, (ResourceBundle) null, msg, (Throwable) null);
+    }
+
+    @Override
+    public void log(Level level, Supplier<String> msgSupplier) {
+        LogLevel mapped = BridgeSupport.fromSystem(level);
+        if (mapped != null && logger.isEnabled(mapped)) {
+            logger.log(mapped, msgSupplier.get(), null, BridgeSupport.findCaller());
+        }
+    }
+
+    @Override
+    public void log(Level level, Supplier<String> msgSupplier, Throwable thrown) {
+        LogLevel mapped = BridgeSupport.fromSystem(level);
+        if (mapped != null && logger.isEnabled(mapped)) {
+            logger.log(mapped, msgSupplier.get(), thrown, BridgeSupport.findCaller());
+        }
+    }
+
+    @Override
+    public void log(Level level, ResourceBundle bundle, String msg, Throwable thrown) {
+        LogLevel mapped = BridgeSupport.fromSystem(level);
+        if (mapped != null && logger.isEnabled(mapped)) {
+            logger.log(mapped, localize(bundle, msg), thrown, BridgeSupport.findCaller());
+        }
+    }
+
+    @Override
+    public void log(Level level, ResourceBundle bundle, String format, Object... params) {
+        LogLevel mapped = BridgeSupport.fromSystem(level);
+        if (mapped != null && logger.isEnabled(mapped)) {
+            String message = localize(bundle, format);
+            if (params != null && params.length > 0) {
+                message = MessageFormat.format(message, params);
+            }
+            logger.log(mapped, message, null, BridgeSupport.findCaller());
+        }
+    }
+
+    private static String localize(ResourceBundle bundle, String key) {
+        if (bundle == null || key == null) {
+            return key;
+        }
+        try {
+            return bundle.getString(key);
+        } catch (MissingResourceException ex) {
+            return key;
+        }
+    }
+}
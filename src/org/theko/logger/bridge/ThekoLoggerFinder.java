@@ -0,0 +1,47 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.bridge;
+
+import org.theko.logger.LoggerFactory;
+
+/**
+ * A {@link System.LoggerFinder} service provider that routes {@link System.Logger}
+ * calls, including those made by the JDK itself, into the {@link LoggerFactory} hierarchy.
+ * <p>
+ * It is registered in {@code META-INF/services/java.lang.System$LoggerFinder} and
+ * picked up automatically when this library is on the class path.
+ */
+public class ThekoLoggerFinder extends System.LoggerFinder {
+    /**
+     * Constructs the finder. Called by the service loader.
+     */
+    public ThekoLoggerFinder() {
+    }
+
+    @Override
+    public System.Logger getLogger(String name, Module module) {
+        return new SystemLoggerBridge(LoggerFactory.getLogger(name == null ? "" : name));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.config;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Watches a configuration file with a {@link WatchService} and reapplies it whenever it changes.
+ * The watch runs on a daemon thread, so it never keeps the application alive.
+ */
+public class ConfigurationWatcher implements Runnable, AutoCloseable {
+    /**
+     * Delay used to let editors finish writing before the file is reloaded.
+     */
+    private static final long SETTLE_MILLIS = 100;
+
+    private final Path file;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    private ConfigurationWatcher(Path file) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this, "LoggerConfiguration-Watcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts watching a configuration file.
+     *
+     * @param file The configuration file to watch.
+     * @return The watcher, which can be closed to stop watching.
+     * @throws IOException If the directory of the file cannot be watched.
+     */
+    public static ConfigurationWatcher watch(Path file) throws IOException {
+        ConfigurationWatcher watcher = new ConfigurationWatcher(file);
+        watcher.thread.start();
+        return watcher;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (context instanceof Path && file.getFileName().equals(context)) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+
+                if (changed) {
+                    Thread.sleep(SETTLE_MILLIS);
+                    WatchKey settled = watchService.poll(); // Collapse events of the same save
+                    if (settled != null) {
+                        settled.pollEvents();
+                        settled.reset();
+                    }
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watching stopped
+        }
+    }
+
+    private void reload() {
+        try {
+            LoggerConfiguration.load(file).apply();
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("Cannot reload logging configuration " + file + ": " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Stops watching the configuration file.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.config;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.theko.logger.CallerInfo;
+import org.theko.logger.GlobalLogger;
+import org.theko.logger.LogEntry;
+import org.theko.logger.LogLevel;
+import org.theko.logger.LogPattern;
+import org.theko.logger.LoggerFactory;
+import org.theko.logger.LoggerOutput;
+import org.theko.logger.appender.Appender;
+import org.theko.logger.appender.ConsoleAppender;
+import org.theko.logger.appender.OutputStreamAppender;
+import org.theko.logger.bridge.JulBridgeHandler;
+
+/**
+ * Declarative logging configuration read from a properties file.
+ * <p>
+ * Example configuration:
+ * <pre>
+ * # Logger levels by hierarchical name, "level" alone sets the root logger
+ * level = INFO
+ * level.com.shop.net = DEBUG
+ *
+ * # Outputs: "root" is the LoggerFactory root output, "global" is the GlobalLogger output
+ * output.root.level = DEBUG
+ * output.root.pattern = [-time&lt;HH:mm:ss:SSS, UTC&gt;] -type | [-class.-method] &gt; -message
+ * output.root.sinks = stdout, file:logs/app.log
+ * output.root.color = true
+ * output.root.buffer.size = 8192
+ * output.root.async = true
+ * output.root.async.capacity = 8192
+ *
+ * output.global.level = DEBUG
+ * output.global.pattern = [-time&lt;HH:mm:ss, UTC&gt;] -type &gt; -message
+ * </pre>
+ * Sinks are {@code stdout}, {@code stderr} and {@code file:<path>} (appending).
+ * The console sinks write through a {@link ConsoleAppender}, coloring entries by level
+ * when {@code color} is {@code true}; {@code auto} colors only when
+ * {@link ConsoleAppender#isColorSupported()}.
+ * Keys missing from the file leave the corresponding setting unchanged,
+ * except logger levels, which are reset to inherit from their parent.
+ * <p>
+ * A configuration is fully validated and its sinks are opened before anything is applied,
+ * so an invalid file leaves the previous configuration in place. Settings are swapped
+ * without stopping producers, and queued entries are written before old sinks are closed.
+ * <p>
+ * When the system property {@value #CONFIG_PROPERTY} names a file, it is loaded on first use
+ * of {@link GlobalLogger} or {@link LoggerFactory} and watched for changes.
+ */
+public class LoggerConfiguration {
+    /**
+     * System property naming the configuration file loaded at startup.
+     */
+    public static final String CONFIG_PROPERTY = "theko.logger.config";
+
+    private static final String[] OUTPUTS = { "root", "global" };
+    private static final int DEFAULT_ASYNC_CAPACITY = 8192;
+    private static final AtomicBoolean bootstrapped = new AtomicBoolean();
+
+    private static final Object APPLY_LOCK = new Object();
+    private static Set<String> configuredLoggers = new HashSet<>();   // Guarded by APPLY_LOCK
+    private static final Map<String, List<OutputStream>> openedSinks = new HashMap<>(); // Guarded by APPLY_LOCK
+
+    private final Map<String, LogLevel> levels = new HashMap<>();
+    private final Map<String, OutputSettings> outputs = new HashMap<>();
+
+    private LoggerConfiguration() {
+    }
+
+    /**
+     * Loads the file named by {@value #CONFIG_PROPERTY}, if set, and starts watching it.
+     * Only the first call has an effect.
+     */
+    public static void bootstrap() {
+        String path = System.getProperty(CONFIG_PROPERTY);
+        if (path == null || path.isEmpty() || !bootstrapped.compareAndSet(false, true)) {
+            return;
+        }
+        Path file = Paths.get(path);
+        try {
+            load(file).apply();
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("Cannot load logging configuration " + file + ": " + ex.getMessage());
+        }
+        try {
+            ConfigurationWatcher.watch(file);
+        } catch (IOException ioex) {
+            System.err.println("Cannot watch logging configuration " + file + ": " + ioex.getMessage());
+        }
+    }
+
+    /**
+     * Reads and validates a configuration file. Sinks are not opened until {@link #apply()}.
+     *
+     * @param file The properties file to read.
+     * @return The parsed configuration.
+     * @throws IOException              If the file cannot be read.
+     * @throws IllegalArgumentException If the file contains invalid values.
+     */
+    public static LoggerConfiguration load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream is = Files.newInputStream(file)) {
+            properties.load(is);
+        }
+        return parse(properties);
+    }
+
+    /**
+     * Validates a configuration given as properties.
+     *
+     * @param properties The configuration properties.
+     * @return The parsed configuration.
+     * @throws IllegalArgumentException If the properties contain invalid values.
+     */
+    public static LoggerConfiguration parse(Properties properties) {
+        LoggerConfiguration config = new LoggerConfiguration();
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            if (key.equals("level")) {
+                config.levels.put("", parseLevel(key, value));
+            } else if (key.startsWith("level.")) {
+                config.levels.put(key.substring("level.".length()), parseLevel(key, value));
+            } else if (!key.startsWith("output.")) {
+                throw new IllegalArgumentException("Unknown key: " + key);
+            }
+        }
+        for (String name : OUTPUTS) {
+            String prefix = "output." + name + ".";
+            OutputSettings settings = new OutputSettings();
+            String level = properties.getProperty(prefix + "level");
+            settings.level = level != null ? parseLevel(prefix + "level", level.trim()) : null;
+            settings.pattern = properties.getProperty(prefix + "pattern");
+            if (settings.pattern != null) {
+                validatePattern(prefix + "pattern", settings.pattern);
+            }
+            String sinks = properties.getProperty(prefix + "sinks");
+            if (sinks != null) {
+                settings.sinks = new ArrayList<>();
+                for (String sink : sinks.split(",")) {
+                    sink = sink.trim();
+                    if (!sink.equals("stdout") && !sink.equals("stderr") && !sink.startsWith("file:")) {
+                        throw new IllegalArgumentException("Unknown sink: " + sink);
+                    }
+                    settings.sinks.add(sink);
+                }
+            }
+            settings.bufferSize = parseInt(properties, prefix + "buffer.size", 0);
+            String color = properties.getProperty(prefix + "color", "false").trim();
+            if (color.equals("auto")) {
+                settings.colored = ConsoleAppender.isColorSupported();
+            } else if (color.equals("true") || color.equals("false")) {
+                settings.colored = color.equals("true");
+            } else {
+                throw new IllegalArgumentException("Invalid color for " + prefix + "color: " + color);
+            }
+            String async = properties.getProperty(prefix + "async");
+            settings.async = async != null ? Boolean.valueOf(Boolean.parseBoolean(async.trim())) : null;
+            settings.asyncCapacity = parseInt(properties, prefix + "async.capacity", DEFAULT_ASYNC_CAPACITY);
+            config.outputs.put(name, settings);
+        }
+        return config;
+    }
+
+    /**
+     * Applies this configuration to {@link LoggerFactory} loggers and to the
+     * {@link GlobalLogger} and root outputs.
+     *
+     * @throws IOException If a sink cannot be opened, in which case nothing is applied.
+     */
+    public void apply() throws IOException {
+        synchronized (APPLY_LOCK) {
+            // Open every sink first, so a failure leaves the previous configuration untouched
+            Map<String, List<Appender>> sinks = new HashMap<>();
+            Map<String, List<OutputStream>> opened = new HashMap<>();
+            try {
+                for (Map.Entry<String, OutputSettings> entry : outputs.entrySet()) {
+                    if (entry.getValue().sinks != null) {
+                        List<OutputStream> files = new ArrayList<>();
+                        opened.put(entry.getKey(), files);
+                        sinks.put(entry.getKey(), openSinks(entry.getValue(), files));
+                    }
+                }
+            } catch (IOException | RuntimeException ex) {
+                opened.values().forEach(LoggerConfiguration::closeAll);
+                throw ex;
+            }
+
+            for (Map.Entry<String, OutputSettings> entry : outputs.entrySet()) {
+                LoggerOutput output = entry.getKey().equals("root")
+                        ? LoggerFactory.getRootLogger().getLoggerOutput()
+                        : GlobalLogger.getLoggerOutput();
+                OutputSettings settings = entry.getValue();
+                if (settings.pattern != null) {
+                    output.setPattern(settings.pattern);
+                }
+                if (settings.level != null) {
+                    output.setPreferredLevel(settings.level);
+                }
+                if (sinks.containsKey(entry.getKey())) {
+                    output.replaceAppenders(appender -> appender instanceof OutputStreamAppender
+                            || appender instanceof ConsoleAppender, sinks.get(entry.getKey()));
+                }
+                if (settings.async != null) {
+                    output.setAsync(settings.async, settings.asyncCapacity);
+                }
+                output.flush(); // Pushes entries still buffered in replaced sinks
+            }
+
+            for (String name : configuredLoggers) {
+                if (!levels.containsKey(name)) {
+                    LoggerFactory.getLogger(name).setLevel(name.isEmpty() ? LogLevel.INFO : null);
+                }
+            }
+            for (Map.Entry<String, LogLevel> entry : levels.entrySet()) {
+                LoggerFactory.getLogger(entry.getKey()).setLevel(entry.getValue());
+            }
+            configuredLoggers = new HashSet<>(levels.keySet());
+            if (JulBridgeHandler.isInstalled()) {
+                JulBridgeHandler.updateLevels(); // JUL filters at the root level it was given
+            }
+
+            // replaceAppenders waited for writes still using the replaced sinks, so closing them
+            // loses nothing; queued entries already went to the new ones
+            for (Map.Entry<String, List<OutputStream>> entry : opened.entrySet()) {
+                List<OutputStream> previous = openedSinks.put(entry.getKey(), entry.getValue());
+                if (previous != null) {
+                    closeAll(previous);
+                }
+            }
+        }
+    }
+
+    private static List<Appender> openSinks(OutputSettings settings, List<OutputStream> opened) throws IOException {
+        List<Appender> appenders = new ArrayList<>();
+        for (String sink : settings.sinks) {
+            if (sink.equals("stdout") || sink.equals("stderr")) {
+                appenders.add(new ConsoleAppender(sink.equals("stderr"), ConsoleAppender.DEFAULT_BUFFER_SIZE, settings.colored));
+            } else {
+                Path path = Paths.get(sink.substring("file:".length()).trim());
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                OutputStream os = new FileOutputStream(path.toFile(), true);
+                if (settings.bufferSize > 0) {
+                    os = new BufferedOutputStream(os, settings.bufferSize);
+                }
+                opened.add(os);
+                appenders.add(new OutputStreamAppender(os));
+            }
+        }
+        return appenders;
+    }
+
+    private static void closeAll(List<OutputStream> streams) {
+        for (OutputStream os : streams) {
+            try {
+                os.close();
+            } catch (IOException ioex) {
+                ioex.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Compiles a pattern and formats a probe entry with it, so a pattern that fails only when
+     * formatting, such as an invalid time pattern, is rejected before anything is applied.
+     */
+    private static void validatePattern(String key, String pattern) {
+        try {
+            CallerInfo caller = new CallerInfo(new StackTraceElement(LoggerConfiguration.class.getName(), "validatePattern", null, -1));
+            LogEntry probe = new LogEntry(LogLevel.INFO, "probe", System.currentTimeMillis(), "main", caller, null);
+            LogPattern.compile(pattern).format(probe);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid pattern for " + key + ": " + ex.getMessage());
+        }
+    }
+
+    private static LogLevel parseLevel(String key, String value) {
+        try {
+            return LogLevel.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid level for " + key + ": " + value);
+        }
+    }
+
+    private static int parseInt(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed <= 0) {
+                throw new NumberFormatException();
+            }
+            return parsed;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid positive number for " + key + ": " + value);
+        }
+    }
+
+    private static class OutputSettings {
+        LogLevel level;
+        String pattern;
+        List<String> sinks;
+        int bufferSize;
+        boolean colored;
+        Boolean async;
+        int asyncCapacity;
+    }
+}
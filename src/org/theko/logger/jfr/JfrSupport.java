@@ -0,0 +1,48 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.jfr;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Guards the use of the logger's JFR events.
+ * Touching an event class initializes JFR support, which takes tens of milliseconds,
+ * so events are only created once Flight Recorder itself is initialized, that is,
+ * after a recording was started from the command line, by a tool or through the API.
+ */
+public final class JfrSupport {
+    private JfrSupport() {
+        throw new IllegalAccessError("Cannot make instance of JfrSupport!");
+    }
+
+    /**
+     * Checks if Flight Recorder is initialized, so the events may be enabled.
+     *
+     * @return true if events should be created, false otherwise.
+     */
+    public static boolean isActive() {
+        return FlightRecorder.isInitialized();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.jfr;
+
+import org.theko.logger.CallerInfo;
+import org.theko.logger.LogEntry;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for a log entry written by a {@link org.theko.logger.LoggerOutput}.
+ * <p>
+ * Committed by the thread writing the entry, which is the background writer in
+ * asynchronous mode, so the thread that logged the entry is recorded as a field,
+ * along with the time the entry waited in the queue.
+ */
+@Name("org.theko.logger.LogEntry")
+@Label("Log Entry")
+@Category({"Theko Logger"})
+@Description("A log entry written to the sinks")
+@StackTrace(false)
+public final class LogEntryEvent extends jdk.jfr.Event {
+    @Label("Level")
+    String level;
+
+    @Label("Logger")
+    String logger;
+
+    @Label("Caller")
+    String caller;
+
+    @Label("Logging Thread")
+    String loggingThread;
+
+    @Label("Queue Wait")
+    @Description("Time the entry waited in the asynchronous queue")
+    @Timespan(Timespan.NANOSECONDS)
+    long queueWait;
+
+    /**
+     * Checks if the event is enabled in a running recording.
+     *
+     * @return true if log entries are recorded, false otherwise.
+     */
+    public static boolean isRecording() {
+        return new LogEntryEvent().isEnabled();
+    }
+
+    /**
+     * Commits an event for a log entry, if the event is enabled.
+     *
+     * @param log            The written log entry.
+     * @param queueWaitNanos The time the entry waited in the queue, 0 if it was not queued.
+     */
+    public static void commit(LogEntry log, long queueWaitNanos) {
+        LogEntryEvent event = new LogEntryEvent();
+        if (event.isEnabled()) {
+            CallerInfo caller = log.getCallerInfo();
+            event.level = log.getLevel().name();
+            event.logger = log.getLoggerName();
+            event.caller = caller != null ? caller.toString() : null;
+            event.loggingThread = log.getThreadName();
+            event.queueWait = queueWaitNanos;
+            event.commit();
+        }
+    }
+}
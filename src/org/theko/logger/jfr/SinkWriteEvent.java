@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one write of an entry or a batch of entries to the sinks of a
+ * {@link org.theko.logger.LoggerOutput}. Its duration includes waiting for the
+ * write lock and writing to every sink.
+ */
+@Name("org.theko.logger.SinkWrite")
+@Label("Sink Write")
+@Category({"Theko Logger"})
+@Description("A write of encoded log entries to the sinks")
+@StackTrace(false)
+public final class SinkWriteEvent extends jdk.jfr.Event {
+    @Label("Entries")
+    int entries;
+
+    @Label("Bytes")
+    @DataAmount(DataAmount.BYTES)
+    long bytes;
+
+    @Label("Sinks")
+    int sinks;
+
+    /**
+     * Sets the size of the write, before the event is committed.
+     *
+     * @param entries The number of entries written.
+     * @param bytes   The number of encoded bytes written to each sink.
+     * @param sinks   The number of sinks written to.
+     */
+    public void setWrite(int entries, long bytes, int sinks) {
+        this.entries = entries;
+        this.bytes = bytes;
+        this.sinks = sinks;
+    }
+}
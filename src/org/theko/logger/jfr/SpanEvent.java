@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for a {@link org.theko.logger.timer.Span}, begun when the span opens
+ * and committed when it closes. Spans opened while the event is disabled are not recorded.
+ */
+@Name("org.theko.logger.Span")
+@Label("Timer Span")
+@Category({"Theko Logger"})
+@Description("A timed span closed by a span tracer")
+@StackTrace(false)
+public final class SpanEvent extends jdk.jfr.Event {
+    @Label("Name")
+    String name;
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+
+    @Label("Self Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long self;
+
+    /**
+     * Sets the times of the span, before the event is committed.
+     *
+     * @param name         The name of the span.
+     * @param depth        The nesting depth of the span.
+     * @param elapsedNanos The total time of the span in nanoseconds.
+     * @param selfNanos    The time spent outside children in nanoseconds.
+     */
+    public void setSpan(String name, int depth, long elapsedNanos, long selfNanos) {
+        this.name = name;
+        this.depth = depth;
+        this.elapsed = elapsedNanos;
+        this.self = selfNanos;
+    }
+}
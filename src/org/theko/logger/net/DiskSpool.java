@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A bounded file holding frames which could not be sent while disconnected.
+ * Frames are replayed in order after reconnecting; the file is truncated once drained.
+ * Each frame is stored as written to the network, starting with its length prefix.
+ */
+class DiskSpool implements AutoCloseable {
+    private final FileChannel file;
+    private final long maxBytes;
+    private long readPosition;
+
+    DiskSpool(Path path, long maxBytes) throws IOException {
+        this.file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Appends a frame.
+     *
+     * @return false if the spool is full and the frame was not stored.
+     */
+    boolean append(ByteBuffer frame) throws IOException {
+        long size = file.size();
+        if (size + frame.remaining() > maxBytes) {
+            return false;
+        }
+        ByteBuffer src = frame.duplicate();
+        long position = size;
+        while (src.hasRemaining()) {
+            position += file.write(src, position);
+        }
+        return true;
+    }
+
+    boolean isEmpty() throws IOException {
+        return readPosition >= file.size();
+    }
+
+    /**
+     * Reads the next frame without removing it.
+     *
+     * @return The frame including its length prefix, or null if the spool is empty or damaged.
+     */
+    ByteBuffer peek() throws IOException {
+        long size = file.size();
+        if (readPosition + 4 > size) {
+            clear();
+            return null;
+        }
+        ByteBuffer prefix = ByteBuffer.allocate(4);
+        readFully(prefix, readPosition);
+        int length = prefix.getInt(0);
+        if (length <= 0 || readPosition + 4 + length > size) {
+            clear(); // Damaged tail, e.g. after a crash while spooling
+            return null;
+        }
+        ByteBuffer frame = ByteBuffer.allocate(4 + length);
+        readFully(frame, readPosition);
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * Removes the frame returned by {@link #peek()}.
+     */
+    void advance(int frameLength) throws IOException {
+        readPosition += frameLength;
+        if (readPosition >= file.size()) {
+            clear();
+        }
+    }
+
+    private void clear() throws IOException {
+        file.truncate(0);
+        readPosition = 0;
+    }
+
+    private void readFully(ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int read = file.read(target, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of spool file");
+            }
+            position += read;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
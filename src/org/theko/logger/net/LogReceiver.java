@@ -0,0 +1,214 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.net;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.NetworkChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A reference receiver for frames shipped by {@link NetworkSink}.
+ * It listens on the loopback interface and writes the received entries to an output stream.
+ * <p>
+ * Run it as a separate process:
+ * <pre>
+ * java org.theko.logger.net.LogReceiver &lt;port&gt; [tcp | udp]
+ * </pre>
+ */
+public class LogReceiver implements Runnable, AutoCloseable {
+    private final NetworkSink.Protocol protocol;
+    private final OutputStream output;
+    private final NetworkChannel channel;
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a receiver bound to the loopback interface.
+     *
+     * @param port     The port to listen on, 0 for an ephemeral port.
+     * @param protocol The transport protocol.
+     * @param output   The stream receiving the entries.
+     * @throws IOException If the port cannot be bound.
+     */
+    public LogReceiver(int port, NetworkSink.Protocol protocol, OutputStream output) throws IOException {
+        this.protocol = protocol;
+        this.output = output;
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        this.channel = protocol == NetworkSink.Protocol.TCP
+                ? ServerSocketChannel.open().bind(address)
+                : DatagramChannel.open().bind(address);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java " + LogReceiver.class.getName() + " <port> [tcp | udp]");
+            System.exit(2);
+        }
+        NetworkSink.Protocol protocol = args.length > 1 && args[1].equalsIgnoreCase("udp")
+                ? NetworkSink.Protocol.UDP : NetworkSink.Protocol.TCP;
+        try (LogReceiver receiver = new LogReceiver(Integer.parseInt(args[0]), protocol, System.out)) {
+            System.err.println("Receiving " + protocol + " on " + receiver.getAddress());
+            receiver.run();
+        }
+    }
+
+    /**
+     * Gets the address the receiver listens on.
+     *
+     * @return The bound address.
+     * @throws IOException If the address cannot be read.
+     */
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) channel.getLocalAddress();
+    }
+
+    /**
+     * Receives frames until closed.
+     */
+    @Override
+    public void run() {
+        try {
+            if (protocol == NetworkSink.Protocol.TCP) {
+                ServerSocketChannel server = (ServerSocketChannel) channel;
+                while (running) {
+                    SocketChannel client = server.accept();
+                    Thread handler = new Thread(() -> receiveStream(client), "LogReceiver-" + client.getRemoteAddress());
+                    handler.setDaemon(true);
+                    handler.start();
+                }
+            } else {
+                DatagramChannel datagrams = (DatagramChannel) channel;
+                ByteBuffer packet = ByteBuffer.allocate(65536);
+                while (running) {
+                    packet.clear();
+                    datagrams.receive(packet);
+                    packet.flip();
+                    if (packet.remaining() < 5) {
+                        continue;
+                    }
+                    int length = packet.getInt();
+                    int flags = packet.get();
+                    if (length < 1) {
+                        continue; // Malformed, the next datagram is a frame of its own
+                    }
+                    byte[] payload = new byte[Math.min(length - 1, packet.remaining())];
+                    packet.get(payload);
+                    try {
+                        deliver(flags, payload);
+                    } catch (IOException ioex) {
+                        ioex.printStackTrace(); // Only this frame is dropped
+                    }
+                }
+            }
+        } catch (ClosedChannelException e) {
+            // Receiver closed
+        } catch (IOException ioex) {
+            if (running) {
+                ioex.printStackTrace();
+            }
+        }
+    }
+
+    private void receiveStream(SocketChannel client) {
+        try (InputStream is = Channels.newInputStream(client)) {
+            DataInputStream in = new DataInputStream(is);
+            while (running) {
+                int length = in.readInt();
+                if (length < 1) {
+                    // The following frames cannot be found again, only this connection ends
+                    throw new IOException("Invalid frame length " + length + " from " + client.getRemoteAddress());
+                }
+                int flags = in.readByte();
+                byte[] payload = new byte[length - 1];
+                in.readFully(payload);
+                try {
+                    deliver(flags, payload);
+                } catch (IOException ioex) {
+                    ioex.printStackTrace(); // Only this frame is dropped, the next one is intact
+                }
+            }
+        } catch (EOFException e) {
+            // Sender disconnected, a partial last frame is discarded
+        } catch (IOException ioex) {
+            if (running) {
+                ioex.printStackTrace();
+            }
+        }
+    }
+
+    private void deliver(int flags, byte[] payload) throws IOException {
+        byte[] entries = payload;
+        if ((flags & NetworkSink.FLAG_DEFLATE) != 0) {
+            entries = inflate(payload);
+        }
+        synchronized (output) {
+            output.write(entries);
+            output.flush();
+        }
+    }
+
+    private static byte[] inflate(byte[] payload) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length * 4);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated compressed frame");
+                }
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException ex) {
+            throw new IOException("Invalid compressed frame", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Stops receiving.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        channel.close();
+    }
+}
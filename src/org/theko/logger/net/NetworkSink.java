@@ -0,0 +1,449 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.net;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+/**
+ * A channel shipping log entries to a remote collector without ever blocking the logger.
+ * <p>
+ * Add it to a {@link org.theko.logger.LoggerOutput} with
+ * {@link org.theko.logger.LoggerOutput#addChannel(java.nio.channels.WritableByteChannel)}.
+ * Writes only copy the entry into a bounded queue; a background thread batches queued
+ * entries into frames and sends them through a non-blocking TCP or UDP channel.
+ * A frame is a 4-byte big-endian length followed by a flags byte and the payload,
+ * the concatenated entries, optionally deflate-compressed (flag {@value #FLAG_DEFLATE}).
+ * <p>
+ * When the connection is lost, the sink reconnects with exponential backoff and spools
+ * frames to a bounded file in the meantime, replaying them in order once reconnected.
+ * Entries which fit neither into the queue nor into the spool are dropped and counted.
+ * UDP is best-effort: failures reported by the socket and datagrams the socket had no
+ * room for lead to spooling.
+ * {@link LogReceiver} is a reference receiver for this protocol.
+ */
+public class NetworkSink implements GatheringByteChannel {
+    /**
+     * Transport used to ship frames.
+     */
+    public enum Protocol {
+        TCP,
+        UDP
+    }
+
+    /**
+     * Frame flag marking a deflate-compressed payload.
+     */
+    public static final int FLAG_DEFLATE = 1;
+
+    /**
+     * Maximum payload of a UDP frame, so a frame fits into a single datagram.
+     */
+    static final int MAX_DATAGRAM_PAYLOAD = 60_000;
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 16384;
+    private static final int MAX_BATCH_BYTES = 256 * 1024;
+    private static final long FLUSH_INTERVAL_MILLIS = 50;
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final InetSocketAddress address;
+    private final Protocol protocol;
+    private final boolean compress;
+    private final DiskSpool spool;
+    private final BlockingQueue<byte[]> queue;
+    private final Thread thread;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean open = true;
+    private volatile boolean aborted; // Set when closing times out, the I/O thread gives up sending
+
+    // State of the I/O thread
+    private final Selector selector;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final List<byte[]> batch = new ArrayList<>();
+    private SocketChannel socket;
+    private DatagramChannel datagram;
+    private volatile boolean connected;
+    private long backoffMillis = MIN_BACKOFF_MILLIS;
+    private long nextConnectAttempt;
+    private ByteBuffer pendingFrame;
+    private int pendingEntries; // Entries in the pending frame, counted as dropped if it is lost
+    private boolean pendingFromSpool;
+
+    /**
+     * Constructs a network sink without compression and without a disk spool.
+     * Frames produced while disconnected are dropped.
+     *
+     * @param address  The address of the collector.
+     * @param protocol The transport protocol.
+     * @throws IOException If the selector cannot be opened.
+     */
+    public NetworkSink(InetSocketAddress address, Protocol protocol) throws IOException {
+        this(address, protocol, false, null, 0);
+    }
+
+    /**
+     * Constructs a network sink.
+     *
+     * @param address       The address of the collector.
+     * @param protocol      The transport protocol.
+     * @param compress      Whether frames are deflate-compressed.
+     * @param spoolFile     The file spooling frames while disconnected, or null to drop them.
+     * @param maxSpoolBytes The maximum size of the spool file.
+     * @throws IOException If the selector or spool file cannot be opened.
+     */
+    public NetworkSink(InetSocketAddress address, Protocol protocol, boolean compress, Path spoolFile, long maxSpoolBytes) throws IOException {
+        this.address = address;
+        this.protocol = protocol;
+        this.compress = compress;
+        this.spool = spoolFile != null ? new DiskSpool(spoolFile, maxSpoolBytes) : null;
+        this.queue = new ArrayBlockingQueue<>(DEFAULT_QUEUE_CAPACITY);
+        this.selector = Selector.open();
+        this.thread = new Thread(this::run, "NetworkSink-" + address);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        int length = src.remaining();
+        byte[] entry = new byte[length];
+        src.get(entry);
+        if (!queue.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+        return length;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        long written = 0;
+        for (int i = offset; i < offset + length; i++) {
+            written += write(srcs[i]);
+        }
+        return written;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs) throws IOException {
+        return write(srcs, 0, srcs.length);
+    }
+
+    /**
+     * Gets the number of entries dropped because the queue or the spool was full.
+     *
+     * @return The number of dropped entries.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Checks whether the sink is currently connected to the collector.
+     *
+     * @return true if connected.
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Closes the sink, trying for a short while to send the entries still queued.
+     * Entries which could not be sent by then are counted as dropped. The connection,
+     * spool and selector are released by the I/O thread, which alone uses them.
+     */
+    @Override
+    public void close() throws IOException {
+        open = false;
+        selector.wakeup();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(2));
+            if (thread.isAlive()) {
+                aborted = true;
+                selector.wakeup();
+                thread.join(TimeUnit.SECONDS.toMillis(1));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            send();
+        } finally {
+            release();
+        }
+    }
+
+    private void send() {
+        while (!aborted && (open || !queue.isEmpty() || pendingFrame != null)) {
+            try {
+                if (!connected) {
+                    connect();
+                }
+                if (pendingFrame == null) {
+                    nextFrame();
+                }
+                if (pendingFrame != null && connected) {
+                    sendFrame();
+                } else if (!open && !connected) {
+                    break; // Closing while disconnected, nothing can be sent
+                }
+            } catch (IOException ioex) {
+                connectionLost();
+            } catch (InterruptedException e) {
+                if (!open) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private void nextFrame() throws IOException, InterruptedException {
+        if (connected && spool != null && !spool.isEmpty()) {
+            pendingFrame = spool.peek();
+            pendingFromSpool = pendingFrame != null;
+            if (pendingFrame != null) {
+                return;
+            }
+        }
+
+        byte[] first = queue.poll(FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        int maxBytes = protocol == Protocol.UDP ? MAX_DATAGRAM_PAYLOAD : MAX_BATCH_BYTES;
+        int bytes = first.length;
+        batch.add(first);
+        byte[] next;
+        while (bytes < maxBytes && (next = queue.peek()) != null && bytes + next.length <= maxBytes) {
+            batch.add(queue.poll());
+            bytes += next.length;
+        }
+        int entries = batch.size();
+        ByteBuffer frame = encodeFrame(batch, bytes);
+        batch.clear();
+
+        if (protocol == Protocol.UDP && frame.remaining() - 5 > MAX_DATAGRAM_PAYLOAD) {
+            dropped.incrementAndGet(); // A single entry too large for a datagram
+            return;
+        }
+        if (connected) {
+            pendingFrame = frame;
+            pendingEntries = entries;
+            pendingFromSpool = false;
+        } else {
+            spoolFrame(frame, entries);
+        }
+    }
+
+    private ByteBuffer encodeFrame(List<byte[]> entries, int bytes) {
+        byte[] payload = new byte[bytes];
+        int position = 0;
+        for (byte[] entry : entries) {
+            System.arraycopy(entry, 0, payload, position, entry.length);
+            position += entry.length;
+        }
+
+        int flags = 0;
+        int length = payload.length;
+        if (compress) {
+            deflater.reset();
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, bytes / 2));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                compressed.write(chunk, 0, n);
+            }
+            payload = compressed.toByteArray();
+            length = payload.length;
+            flags |= FLAG_DEFLATE;
+        }
+
+        ByteBuffer frame = ByteBuffer.allocate(4 + 1 + length);
+        frame.putInt(1 + length);
+        frame.put((byte) flags);
+        frame.put(payload, 0, length);
+        frame.flip();
+        return frame;
+    }
+
+    private void spoolFrame(ByteBuffer frame, int entries) throws IOException {
+        if (spool == null || !spool.append(frame)) {
+            dropped.addAndGet(entries);
+        }
+    }
+
+    /**
+     * Counts the entries left unsent as dropped and releases the resources of the I/O thread.
+     */
+    private void release() {
+        if (pendingFrame != null && !pendingFromSpool) {
+            dropped.addAndGet(pendingEntries);
+        }
+        pendingFrame = null;
+        dropped.addAndGet(queue.size());
+        queue.clear();
+        disconnect();
+        try {
+            selector.close();
+        } catch (IOException ioex) {
+            ioex.printStackTrace();
+        }
+        deflater.end();
+        if (spool != null) {
+            try {
+                spool.close();
+            } catch (IOException ioex) {
+                ioex.printStackTrace();
+            }
+        }
+    }
+
+    private void sendFrame() throws IOException {
+        if (protocol == Protocol.UDP) {
+            if (datagram.write(pendingFrame) == 0) {
+                // No room in the send buffer, the datagram was not sent
+                if (pendingFromSpool) {
+                    datagram.register(selector, SelectionKey.OP_WRITE);
+                    selector.select(FLUSH_INTERVAL_MILLIS);
+                    selector.selectedKeys().clear();
+                    return; // Still in the spool, retried once writable
+                }
+                spoolFrame(pendingFrame, pendingEntries);
+                pendingFrame = null;
+                return;
+            }
+        } else {
+            socket.write(pendingFrame);
+            if (pendingFrame.hasRemaining()) {
+                socket.register(selector, SelectionKey.OP_WRITE);
+                selector.select(FLUSH_INTERVAL_MILLIS);
+                selector.selectedKeys().clear();
+                return;
+            }
+        }
+        if (pendingFromSpool) {
+            spool.advance(pendingFrame.limit());
+        }
+        pendingFrame = null;
+    }
+
+    private void connect() throws IOException, InterruptedException {
+        long now = System.currentTimeMillis();
+        if (now < nextConnectAttempt) {
+            if (pendingFrame == null && queue.isEmpty()) {
+                Thread.sleep(Math.min(FLUSH_INTERVAL_MILLIS, nextConnectAttempt - now));
+            }
+            return;
+        }
+
+        try {
+            if (protocol == Protocol.UDP) {
+                datagram = DatagramChannel.open();
+                datagram.configureBlocking(false);
+                datagram.connect(address);
+                connected = true;
+            } else {
+                if (socket == null) {
+                    socket = SocketChannel.open();
+                    socket.configureBlocking(false);
+                    if (!socket.connect(address)) {
+                        socket.register(selector, SelectionKey.OP_CONNECT);
+                    }
+                }
+                if (socket.isConnectionPending()) {
+                    selector.select(FLUSH_INTERVAL_MILLIS);
+                    selector.selectedKeys().clear();
+                    if (!socket.finishConnect()) {
+                        return; // Still connecting, keep batching meanwhile
+                    }
+                }
+                connected = true;
+            }
+            backoffMillis = MIN_BACKOFF_MILLIS;
+        } catch (IOException ioex) {
+            connectionLost();
+        }
+    }
+
+    private void connectionLost() {
+        if (pendingFrame != null && !pendingFromSpool) {
+            pendingFrame.rewind();
+            try {
+                spoolFrame(pendingFrame, pendingEntries);
+            } catch (IOException spoolex) {
+                dropped.addAndGet(pendingEntries);
+            }
+        }
+        pendingFrame = null;
+        disconnect();
+        nextConnectAttempt = System.currentTimeMillis() + backoffMillis;
+        backoffMillis = Math.min(MAX_BACKOFF_MILLIS, backoffMillis * 2);
+    }
+
+    private void disconnect() {
+        connected = false;
+        try {
+            if (socket != null) {
+                socket.close();
+            }
+            if (datagram != null) {
+                datagram.close();
+            }
+        } catch (IOException ioex) {
+            // Closing a broken connection, nothing left to do
+        }
+        socket = null;
+        datagram = null;
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.reader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.theko.logger.LogEntry;
+import org.theko.logger.LogPattern;
+
+/**
+ * Reads log entries from a text log file, starting at a byte offset.
+ * <p>
+ * Lines that do not match the pattern are continuation lines, such as stack traces,
+ * and are joined to the preceding entry. Continuation lines before the first entry are skipped.
+ * Only complete lines are consumed, so a file that is still being written can be read
+ * again later from where the scanner stopped. Scanners over a sequential channel, such as
+ * a decompressing one, report offsets in uncompressed bytes.
+ */
+final class EntryScanner implements Closeable {
+    private static final int READ_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final LogPattern pattern;
+    private final ByteBuffer buffer = ByteBuffer.allocate(READ_SIZE);
+    private long position;
+    private long bufferStart;
+    private boolean skipPartialLine;
+
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private long lineStart;
+    private long lineOffset;
+
+    private LogEntry pendingEntry;
+    private String pendingLine;
+    private StringBuilder continuation;
+    private long pendingOffset = -1;
+    private long entryOffset = -1;
+
+    EntryScanner(Path file, LogPattern pattern, long offset) throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.READ).position(offset), pattern, offset);
+    }
+
+    /**
+     * Creates a scanner reading a channel sequentially.
+     *
+     * @param channel The channel, positioned at the start of a line.
+     * @param pattern The pattern the lines were written with.
+     * @param offset  The offset of the channel position, used for reported offsets.
+     */
+    EntryScanner(ReadableByteChannel channel, LogPattern pattern, long offset) {
+        this.channel = channel;
+        this.pattern = pattern;
+        this.position = offset;
+        this.bufferStart = offset;
+        this.lineStart = offset;
+        buffer.flip();
+    }
+
+    /**
+     * Creates a scanner of a file starting at an arbitrary offset.
+     * The line containing the offset is skipped unless the offset starts it.
+     *
+     * @param file    The log file.
+     * @param pattern The pattern the file was written with.
+     * @param offset  The byte offset, not necessarily a line start.
+     * @return The scanner.
+     * @throws IOException If the file cannot be opened.
+     */
+    static EntryScanner openAligned(Path file, LogPattern pattern, long offset) throws IOException {
+        if (offset == 0) {
+            return new EntryScanner(file, pattern, 0);
+        }
+        // Starting one byte early makes a line that starts exactly at the offset survive the skip
+        EntryScanner scanner = new EntryScanner(file, pattern, offset - 1);
+        scanner.skipPartialLine = true;
+        return scanner;
+    }
+
+    /**
+     * Reads the next entry.
+     *
+     * @param flush Whether the last entry may be returned without waiting for a following entry.
+     * @return The next entry, or {@code null} if no complete entry is available.
+     * @throws IOException If the file cannot be read.
+     */
+    LogEntry next(boolean flush) throws IOException {
+        String text;
+        if (skipPartialLine) {
+            if (readLine() == null) {
+                return null;
+            }
+            skipPartialLine = false;
+        }
+        while ((text = readLine()) != null) {
+            LogEntry parsed = pattern.parse(text);
+            if (parsed == null) {
+                if (pendingEntry != null) {
+                    if (continuation == null) {
+                        continuation = new StringBuilder();
+                    }
+                    continuation.append('\n').append(text);
+                }
+                continue;
+            }
+            LogEntry done = pendingEntry != null ? finish() : null;
+            pendingEntry = parsed;
+            pendingLine = text;
+            pendingOffset = lineOffset;
+            if (done != null) {
+                return done;
+            }
+        }
+        return flush && pendingEntry != null ? finish() : null;
+    }
+
+    /**
+     * Gets the offset of the entry last returned by {@link #next(boolean)}.
+     */
+    long getEntryOffset() {
+        return entryOffset;
+    }
+
+    /**
+     * Gets the offset of the first byte not consumed yet.
+     */
+    long getPosition() {
+        return lineStart;
+    }
+
+    /**
+     * Checks if an entry is held back until the next entry shows it is complete.
+     */
+    boolean hasPendingEntry() {
+        return pendingEntry != null;
+    }
+
+    /**
+     * Gets the offset to read again from so that no entry is lost, which is the start of
+     * the entry held back, if any, or the first byte not consumed yet.
+     */
+    long getResumePosition() {
+        return pendingEntry != null ? pendingOffset : lineStart;
+    }
+
+    /**
+     * Gets the size of the underlying file. Only valid for scanners of a file.
+     */
+    long size() throws IOException {
+        return ((FileChannel) channel).size();
+    }
+
+    private LogEntry finish() {
+        LogEntry entry = pendingEntry;
+        if (continuation != null) {
+            LogEntry joined = pattern.parse(pendingLine + continuation);
+            entry = joined != null ? joined : new LogEntry(entry.getLevel(), entry.getMessage() + continuation,
+                    entry.getTime(), entry.getThreadName(), entry.getCallerInfo(), null, null);
+        }
+        entryOffset = pendingOffset;
+        pendingEntry = null;
+        pendingLine = null;
+        continuation = null;
+        return entry;
+    }
+
+    private String readLine() throws IOException {
+        while (true) {
+            int start = buffer.position();
+            int limit = buffer.limit();
+            byte[] array = buffer.array();
+            for (int i = start; i < limit; i++) {
+                if (array[i] == '\n') {
+                    append(array, start, i - start);
+                    buffer.position(i + 1);
+                    int length = lineLength;
+                    if (length > 0 && line[length - 1] == '\r') {
+                        length--;
+                    }
+                    lineOffset = lineStart;
+                    lineStart = bufferStart + i + 1;
+                    lineLength = 0;
+                    return new String(line, 0, length, StandardCharsets.UTF_8);
+                }
+            }
+            append(array, start, limit - start);
+
+            buffer.clear();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read <= 0) {
+                bufferStart = position;
+                return null;
+            }
+            bufferStart = position;
+            position += read;
+        }
+    }
+
+    private void append(byte[] array, int offset, int length) {
+        if (lineLength + length > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+        }
+        System.arraycopy(array, offset, line, lineLength, length);
+        lineLength += length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
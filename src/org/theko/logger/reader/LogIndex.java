@@ -0,0 +1,249 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.reader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import org.theko.logger.LogEntry;
+import org.theko.logger.LogPattern;
+
+/**
+ * A sparse index of a text log file, mapping timestamps to byte offsets.
+ * <p>
+ * One entry start is recorded about every {@link #INTERVAL} bytes, so seeking to a time
+ * is a binary search followed by reading at most a few intervals. The index is stored next
+ * to the log file with an {@code .idx} suffix and is extended, not rebuilt, when the log
+ * file has grown. It is rebuilt when the file shrank or the pattern changed.
+ * <p>
+ * Index file layout:
+ * <pre>
+ * int magic, int version, UTF pattern, long indexed length, long first time, long last time,
+ * int count, count * (long time, long offset)
+ * </pre>
+ */
+public class LogIndex {
+    /**
+     * Approximate number of bytes between two indexed entries.
+     */
+    public static final long INTERVAL = 64 * 1024;
+
+    private static final int MAGIC = 0x544C4958; // "TLIX"
+    private static final int VERSION = 1;
+
+    private final Path file;
+    private final LogPattern pattern;
+    private long indexedLength;
+    private long firstTime = Long.MAX_VALUE;
+    private long lastTime = Long.MIN_VALUE;
+    private long[] times = new long[16];
+    private long[] offsets = new long[16];
+    private int size;
+
+    private LogIndex(Path file, LogPattern pattern) {
+        this.file = file;
+        this.pattern = pattern;
+    }
+
+    /**
+     * Loads the index of a log file, building or extending it as needed.
+     * If the index cannot be stored, it is still returned but rebuilt on the next load.
+     *
+     * @param file    The log file.
+     * @param pattern The pattern the log file was written with.
+     * @return The up-to-date index.
+     * @throws IOException If the log file cannot be read.
+     */
+    public static LogIndex load(Path file, LogPattern pattern) throws IOException {
+        LogIndex index = new LogIndex(file, pattern);
+        long length = Files.size(file);
+        if (!index.read() || index.indexedLength > length) {
+            index.clear();
+        }
+        if (index.update()) {
+            try {
+                index.write();
+            } catch (IOException ioex) {
+                // A read-only directory only costs rebuilding the index next time
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Gets the path of the index stored for a log file.
+     *
+     * @param file The log file.
+     * @return The index path.
+     */
+    public static Path indexPathOf(Path file) {
+        return file.resolveSibling(file.getFileName() + ".idx");
+    }
+
+    /**
+     * Gets the offset to start reading at to see all entries at or after the specified time.
+     * It starts one indexed entry earlier than needed to cover entries written slightly out of order.
+     *
+     * @param time The time in milliseconds since the epoch.
+     * @return The byte offset of an entry start.
+     */
+    public long seek(long time) {
+        int low = 0;
+        int high = size - 1;
+        int found = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] < time) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found <= 0 ? 0 : offsets[found - 1];
+    }
+
+    /**
+     * Gets the earliest entry time in the file, or {@link Long#MAX_VALUE} if it has no entries.
+     */
+    public long getFirstTime() {
+        return firstTime;
+    }
+
+    /**
+     * Gets the latest entry time in the file, or {@link Long#MIN_VALUE} if it has no entries.
+     */
+    public long getLastTime() {
+        return lastTime;
+    }
+
+    /**
+     * Gets the offset up to which the file has been indexed.
+     */
+    public long getIndexedLength() {
+        return indexedLength;
+    }
+
+    /**
+     * Gets the number of indexed entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    private boolean update() throws IOException {
+        long previousLength = indexedLength;
+        long previousFirst = firstTime;
+        long previousLast = lastTime;
+        int previousSize = size;
+        try (EntryScanner scanner = new EntryScanner(file, pattern, indexedLength)) {
+            LogEntry entry;
+            while ((entry = scanner.next(true)) != null) {
+                long offset = scanner.getEntryOffset();
+                long time = entry.getTime();
+                if (size == 0 || offset >= offsets[size - 1] + INTERVAL) {
+                    add(time, offset);
+                }
+                firstTime = Math.min(firstTime, time);
+                lastTime = Math.max(lastTime, time);
+                // Resume at the last entry, its continuation lines may still be written
+                indexedLength = offset;
+            }
+        }
+        // The last entry is read again on every update, only new entries change the index
+        return indexedLength != previousLength || firstTime != previousFirst
+                || lastTime != previousLast || size != previousSize;
+    }
+
+    private void add(long time, long offset) {
+        if (size == times.length) {
+            times = Arrays.copyOf(times, size * 2);
+            offsets = Arrays.copyOf(offsets, size * 2);
+        }
+        times[size] = time;
+        offsets[size] = offset;
+        size++;
+    }
+
+    private void clear() {
+        indexedLength = 0;
+        firstTime = Long.MAX_VALUE;
+        lastTime = Long.MIN_VALUE;
+        size = 0;
+    }
+
+    private boolean read() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPathOf(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(pattern.getPattern())) {
+                return false;
+            }
+            indexedLength = in.readLong();
+            firstTime = in.readLong();
+            lastTime = in.readLong();
+            int count = in.readInt();
+            times = new long[Math.max(16, count)];
+            offsets = new long[Math.max(16, count)];
+            for (int i = 0; i < count; i++) {
+                times[i] = in.readLong();
+                offsets[i] = in.readLong();
+            }
+            size = count;
+            return true;
+        } catch (NoSuchFileException ex) {
+            return false;
+        } catch (IOException ex) {
+            // A truncated or foreign index is rebuilt
+            clear();
+            return false;
+        }
+    }
+
+    private void write() throws IOException {
+        Path target = indexPathOf(file);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(pattern.getPattern());
+            out.writeLong(indexedLength);
+            out.writeLong(firstTime);
+            out.writeLong(lastTime);
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(times[i]);
+                out.writeLong(offsets[i]);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
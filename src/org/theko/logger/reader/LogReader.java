@@ -0,0 +1,313 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.reader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.theko.logger.LogEntry;
+import org.theko.logger.LogFormatter;
+import org.theko.logger.LogPattern;
+
+/**
+ * Reads log entries back from the text log files in a directory.
+ * <p>
+ * Files are ordered by their first entry and read through a sparse {@link LogIndex},
+ * so reading a time range skips files outside of it and seeks close to its start
+ * instead of scanning from the beginning. Entries are parsed with the pattern they
+ * were written with, see {@link LogPattern#parse(CharSequence)}.
+ * <p>
+ * Example usage:
+ * <pre>
+ * LogReader reader = new LogReader(Paths.get("logs"), LogFormatter.DEFAULT_INFO);
+ * try (Stream&lt;LogEntry&gt; entries = reader.read(from, to)) {
+ *     entries.filter(log -&gt; log.getLevel() == LogLevel.ERROR).forEach(System.out::println);
+ * }
+ * </pre>
+ * From the command line, entries are rendered with {@link LogFormatter}:
+ * <pre>
+ * java org.theko.logger.reader.LogReader &lt;directory&gt; &lt;pattern&gt; [&lt;from&gt; &lt;to&gt; | -f]
+ * </pre>
+ */
+public class LogReader {
+    /**
+     * How far, in milliseconds, entries may be out of time order in a file.
+     */
+    public static final long REORDER_TOLERANCE = 1000;
+
+    private final Path directory;
+    private final PathMatcher matcher;
+    private final LogPattern pattern;
+
+    /**
+     * Creates a reader of the {@code *.log} files in a directory.
+     *
+     * @param directory The log directory.
+     * @param pattern   The pattern the files were written with.
+     */
+    public LogReader(Path directory, String pattern) {
+        this(directory, "*.log", pattern);
+    }
+
+    /**
+     * Creates a reader of the files matching a glob in a directory.
+     *
+     * @param directory The log directory.
+     * @param glob      The glob the file names must match, e.g. {@code "app-*.log"}.
+     * @param pattern   The pattern the files were written with.
+     */
+    public LogReader(Path directory, String glob, String pattern) {
+        this.directory = directory;
+        this.matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        this.pattern = LogPattern.compile(pattern);
+    }
+
+    /**
+     * Gets the log directory.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets the pattern the files are parsed with.
+     */
+    public LogPattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Checks whether a file name belongs to the files read by this reader.
+     *
+     * @param file The file, only its name is checked.
+     * @return {@code true} if the file is read by this reader.
+     */
+    public boolean matches(Path file) {
+        return matcher.matches(file.getFileName());
+    }
+
+    /**
+     * Gets the log files in the directory, ordered by their first entry.
+     *
+     * @return The log files.
+     * @throws IOException If the directory or a file cannot be read.
+     */
+    public List<Path> getFiles() throws IOException {
+        List<IndexedFile> files = indexFiles();
+        List<Path> paths = new ArrayList<>(files.size());
+        for (IndexedFile file : files) {
+            paths.add(file.path);
+        }
+        return paths;
+    }
+
+    /**
+     * Streams all entries of all files. The stream must be closed.
+     *
+     * @return The entries in file order.
+     * @throws IOException If the directory or a file cannot be read.
+     */
+    public Stream<LogEntry> read() throws IOException {
+        return read(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Streams the entries with a time in the specified range. The stream must be closed.
+     *
+     * @param from The start time in milliseconds since the epoch, inclusive.
+     * @param to   The end time in milliseconds since the epoch, exclusive.
+     * @return The entries in file order.
+     * @throws IOException If the directory or a file cannot be read.
+     */
+    public Stream<LogEntry> read(long from, long to) throws IOException {
+        long earliest = subtract(from, REORDER_TOLERANCE);
+        long latest = add(to, REORDER_TOLERANCE);
+        List<IndexedFile> files = new ArrayList<>();
+        for (IndexedFile file : indexFiles()) {
+            if (file.index.getLastTime() >= earliest && file.index.getFirstTime() < latest) {
+                files.add(file);
+            }
+        }
+        return files.stream().flatMap(file -> {
+            try {
+                return read(file.path, file.index.seek(from), from, to, latest);
+            } catch (IOException ioex) {
+                throw new UncheckedIOException(ioex);
+            }
+        });
+    }
+
+    /**
+     * Follows the newest file in the directory, switching to new files as they appear.
+     * Entries written before the call are not delivered.
+     *
+     * @param consumer Receives the new entries on the tailer thread.
+     * @return The tailer, which must be closed to stop following.
+     * @throws IOException If the directory cannot be watched.
+     */
+    public LogTailer tail(Consumer<LogEntry> consumer) throws IOException {
+        return LogTailer.start(this, consumer);
+    }
+
+    /**
+     * Opens a scanner for a file of this reader.
+     */
+    EntryScanner open(Path file, long offset) throws IOException {
+        return new EntryScanner(file, pattern, offset);
+    }
+
+    /**
+     * Streams all entries of a single file, which does not have to be in the directory
+     * of this reader. The stream must be closed.
+     *
+     * @param file The log file.
+     * @return The entries in file order.
+     * @throws IOException If the file cannot be opened.
+     */
+    public Stream<LogEntry> read(Path file) throws IOException {
+        return read(file, 0, Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    private Stream<LogEntry> read(Path file, long offset, long from, long to, long latest) throws IOException {
+        EntryScanner scanner = open(file, offset);
+        Spliterator<LogEntry> spliterator = new Spliterators.AbstractSpliterator<LogEntry>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private boolean done;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super LogEntry> action) {
+                try {
+                    while (!done) {
+                        LogEntry entry = scanner.next(true);
+                        if (entry == null || entry.getTime() >= latest) {
+                            done = true;
+                        } else if (entry.getTime() >= from && entry.getTime() < to) {
+                            action.accept(entry);
+                            return true;
+                        }
+                    }
+                    return false;
+                } catch (IOException ioex) {
+                    throw new UncheckedIOException(ioex);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                scanner.close();
+            } catch (IOException ioex) {
+                throw new UncheckedIOException(ioex);
+            }
+        });
+    }
+
+    private List<IndexedFile> indexFiles() throws IOException {
+        List<IndexedFile> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) listing::iterator) {
+                if (matches(path) && Files.isRegularFile(path)) {
+                    files.add(new IndexedFile(path, LogIndex.load(path, pattern)));
+                }
+            }
+        }
+        files.sort(Comparator.comparingLong((IndexedFile file) -> file.index.getFirstTime())
+                .thenComparing(file -> file.path));
+        return files;
+    }
+
+    static long add(long time, long delta) {
+        return time > Long.MAX_VALUE - delta ? Long.MAX_VALUE : time + delta;
+    }
+
+    static long subtract(long time, long delta) {
+        return time < Long.MIN_VALUE + delta ? Long.MIN_VALUE : time - delta;
+    }
+
+    private static final class IndexedFile {
+        final Path path;
+        final LogIndex index;
+
+        IndexedFile(Path path, LogIndex index) {
+            this.path = path;
+            this.index = index;
+        }
+    }
+
+    /**
+     * Prints the entries of a log directory, optionally limited to a time range or following new entries.
+     * Times are UTC, either {@code yyyy-MM-ddTHH:mm:ss} or {@code HH:mm:ss} for today.
+     *
+     * @param args The directory, the pattern, and either a start and an end time or {@code -f}.
+     * @throws IOException If the logs cannot be read.
+     * @throws InterruptedException If interrupted while following.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length != 2 && !(args.length == 3 && args[2].equals("-f")) && args.length != 4) {
+            System.err.println("Usage: java " + LogReader.class.getName() + " <directory> <pattern> [<from> <to> | -f]");
+            System.exit(2);
+        }
+        LogReader reader = new LogReader(Paths.get(args[0]), args[1]);
+        String outputPattern = args[1];
+        if (args.length == 3) {
+            reader.tail(log -> System.out.println(LogFormatter.format(log, outputPattern)));
+            Thread.currentThread().join(); // Follows until the process is stopped
+            return;
+        }
+
+        long from = args.length == 4 ? parseTime(args[2]) : Long.MIN_VALUE;
+        long to = args.length == 4 ? parseTime(args[3]) : Long.MAX_VALUE;
+        try (Stream<LogEntry> entries = reader.read(from, to)) {
+            entries.forEach(log -> System.out.println(LogFormatter.format(log, outputPattern)));
+        }
+    }
+
+    private static long parseTime(String text) {
+        try {
+            if (text.indexOf('T') >= 0) {
+                return LocalDateTime.parse(text).toInstant(ZoneOffset.UTC).toEpochMilli();
+            }
+            return LocalDate.now(ZoneOffset.UTC).atTime(LocalTime.parse(text)).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid time: " + text, ex);
+        }
+    }
+}
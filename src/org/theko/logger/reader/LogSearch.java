@@ -0,0 +1,357 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.reader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.theko.logger.LogEntry;
+import org.theko.logger.LogFormatter;
+import org.theko.logger.LogLevel;
+import org.theko.logger.LogPattern;
+
+/**
+ * Searches the log files in a directory in parallel.
+ * <p>
+ * Plain files are split into chunks of {@link #CHUNK_SIZE} bytes and gzip files are
+ * decompressed as a whole, each chunk or gzip file being one task of a {@link ForkJoinPool}.
+ * An existing {@link LogIndex} of a plain file skips the chunks before the searched time range.
+ * Matches of each task are sorted by time and merged while the tasks are joined, so the
+ * result is in timestamp order.
+ * <p>
+ * Example usage:
+ * <pre>
+ * LogSearch search = new LogSearch(Paths.get("logs"), LogFormatter.DEFAULT_INFO);
+ * search.setMinLevel(LogLevel.WARN);
+ * search.setMessagePattern("timeout after \\d+ ms");
+ * List&lt;LogEntry&gt; matches = search.search();
+ * </pre>
+ */
+public class LogSearch {
+    /**
+     * Size of the chunks plain files are split into.
+     */
+    public static final long CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private final Path directory;
+    private final PathMatcher matcher;
+    private final LogPattern pattern;
+
+    private LogLevel minLevel = LogLevel.DEBUG;
+    private long from = Long.MIN_VALUE;
+    private long to = Long.MAX_VALUE;
+    private String threadName;
+    private String className;
+    private Pattern messagePattern;
+
+    /**
+     * Creates a search over the {@code *.log} and {@code *.log.gz} files in a directory.
+     *
+     * @param directory The log directory.
+     * @param pattern   The pattern the files were written with.
+     */
+    public LogSearch(Path directory, String pattern) {
+        this(directory, "*.{log,log.gz}", pattern);
+    }
+
+    /**
+     * Creates a search over the files matching a glob in a directory.
+     * Files with a {@code .gz} suffix are decompressed.
+     *
+     * @param directory The log directory.
+     * @param glob      The glob the file names must match.
+     * @param pattern   The pattern the files were written with.
+     */
+    public LogSearch(Path directory, String glob, String pattern) {
+        this.directory = directory;
+        this.matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        this.pattern = LogPattern.compile(pattern);
+    }
+
+    /**
+     * Sets the lowest level of the entries to find.
+     *
+     * @param minLevel The minimum level.
+     */
+    public void setMinLevel(LogLevel minLevel) {
+        if (minLevel == null) {
+            throw new IllegalArgumentException("Level must not be null.");
+        }
+        this.minLevel = minLevel;
+    }
+
+    /**
+     * Sets the time range of the entries to find.
+     *
+     * @param from The start time in milliseconds since the epoch, inclusive.
+     * @param to   The end time in milliseconds since the epoch, exclusive.
+     */
+    public void setTimeRange(long from, long to) {
+        if (from > to) {
+            throw new IllegalArgumentException("Start time must not be after end time.");
+        }
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Sets the name of the thread the entries must come from.
+     *
+     * @param threadName The thread name, or {@code null} for any thread.
+     */
+    public void setThreadName(String threadName) {
+        this.threadName = threadName;
+    }
+
+    /**
+     * Sets the class, or the package prefix, the entries must come from.
+     *
+     * @param className The class name or prefix, or {@code null} for any class.
+     */
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    /**
+     * Sets a regular expression to find in the messages.
+     *
+     * @param regex The expression, or {@code null} for any message.
+     */
+    public void setMessagePattern(String regex) {
+        this.messagePattern = regex != null ? Pattern.compile(regex) : null;
+    }
+
+    /**
+     * Searches on the common pool.
+     *
+     * @return The matching entries in timestamp order.
+     * @throws IOException If a file cannot be read.
+     */
+    public List<LogEntry> search() throws IOException {
+        return search(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Searches on the specified pool.
+     *
+     * @param pool The pool running the search tasks.
+     * @return The matching entries in timestamp order.
+     * @throws IOException If a file cannot be read.
+     */
+    public List<LogEntry> search(ForkJoinPool pool) throws IOException {
+        List<Chunk> chunks = partition();
+        if (chunks.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            return pool.invoke(new SearchTask(chunks, 0, chunks.size()));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Checks whether an entry passes the filters of this search.
+     *
+     * @param log The entry to check.
+     * @return {@code true} if the entry matches.
+     */
+    public boolean matches(LogEntry log) {
+        if (log.getLevel().ordinal() < minLevel.ordinal() || log.getTime() < from || log.getTime() >= to) {
+            return false;
+        }
+        if (threadName != null && !threadName.equals(log.getThreadName())) {
+            return false;
+        }
+        if (className != null && (log.getCallerInfo() == null || !log.getCallerInfo().getClassName().startsWith(className))) {
+            return false;
+        }
+        return messagePattern == null || messagePattern.matcher(log.getMessage()).find();
+    }
+
+    private List<Chunk> partition() throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) listing::iterator) {
+                if (!matcher.matches(path.getFileName()) || !Files.isRegularFile(path)) {
+                    continue;
+                }
+                if (path.getFileName().toString().endsWith(".gz")) {
+                    chunks.add(new Chunk(path, 0, Long.MAX_VALUE, true));
+                    continue;
+                }
+                // Building a missing index would scan the file sequentially, so only existing ones are used
+                long first = 0;
+                if (Files.exists(LogIndex.indexPathOf(path))) {
+                    LogIndex index = LogIndex.load(path, pattern);
+                    if (index.getLastTime() < LogReader.subtract(from, LogReader.REORDER_TOLERANCE)
+                            || index.getFirstTime() >= LogReader.add(to, LogReader.REORDER_TOLERANCE)) {
+                        continue;
+                    }
+                    first = index.seek(from);
+                }
+                long size = Files.size(path);
+                for (long start = first; start < size; start += CHUNK_SIZE) {
+                    chunks.add(new Chunk(path, start, Math.min(start + CHUNK_SIZE, size), false));
+                }
+            }
+        }
+        return chunks;
+    }
+
+    private List<LogEntry> scan(Chunk chunk) throws IOException {
+        List<LogEntry> matches = new ArrayList<>();
+        long latest = LogReader.add(to, LogReader.REORDER_TOLERANCE);
+        try (EntryScanner scanner = chunk.gzip
+                ? new EntryScanner(Channels.newChannel(new GZIPInputStream(Files.newInputStream(chunk.file), 64 * 1024)), pattern, 0)
+                : EntryScanner.openAligned(chunk.file, pattern, chunk.start)) {
+            LogEntry entry;
+            while ((entry = scanner.next(true)) != null && scanner.getEntryOffset() < chunk.end) {
+                if (entry.getTime() >= latest) {
+                    break;
+                }
+                if (matches(entry)) {
+                    matches.add(entry);
+                }
+            }
+        }
+        // Entries of one file are close to time order, so this sort is nearly linear
+        matches.sort(Comparator.comparingLong(LogEntry::getTime));
+        return matches;
+    }
+
+    private static List<LogEntry> merge(List<LogEntry> left, List<LogEntry> right) {
+        if (left.isEmpty()) {
+            return right;
+        } else if (right.isEmpty()) {
+            return left;
+        }
+        List<LogEntry> merged = new ArrayList<>(left.size() + right.size());
+        int i = 0;
+        int j = 0;
+        while (i < left.size() && j < right.size()) {
+            merged.add(right.get(j).getTime() < left.get(i).getTime() ? right.get(j++) : left.get(i++));
+        }
+        merged.addAll(left.subList(i, left.size()));
+        merged.addAll(right.subList(j, right.size()));
+        return merged;
+    }
+
+    private static final class Chunk {
+        final Path file;
+        final long start;
+        final long end;
+        final boolean gzip;
+
+        Chunk(Path file, long start, long end, boolean gzip) {
+            this.file = file;
+            this.start = start;
+            this.end = end;
+            this.gzip = gzip;
+        }
+    }
+
+    private final class SearchTask extends RecursiveTask<List<LogEntry>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Chunk> chunks;
+        private final int low;
+        private final int high;
+
+        SearchTask(List<Chunk> chunks, int low, int high) {
+            this.chunks = chunks;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected List<LogEntry> compute() {
+            if (high - low == 1) {
+                try {
+                    return scan(chunks.get(low));
+                } catch (IOException ioex) {
+                    throw new UncheckedIOException(ioex);
+                }
+            }
+            int middle = (low + high) >>> 1;
+            SearchTask left = new SearchTask(chunks, low, middle);
+            SearchTask right = new SearchTask(chunks, middle, high);
+            left.fork();
+            List<LogEntry> rightMatches = right.compute();
+            return merge(left.join(), rightMatches);
+        }
+    }
+
+    /**
+     * Searches a log directory and prints the matches, rendered with {@link LogFormatter}.
+     * Options are {@code -level LEVEL}, {@code -thread NAME}, {@code -class PREFIX} and {@code -message REGEX}.
+     *
+     * @param args The directory, the pattern and the options.
+     * @throws IOException If the logs cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length % 2 != 0) {
+            System.err.println("Usage: java " + LogSearch.class.getName()
+                    + " <directory> <pattern> [-level LEVEL] [-thread NAME] [-class PREFIX] [-message REGEX]");
+            System.exit(2);
+        }
+        LogSearch search = new LogSearch(Paths.get(args[0]), args[1]);
+        for (int i = 2; i < args.length; i += 2) {
+            switch (args[i]) {
+                case "-level":
+                    search.setMinLevel(LogLevel.valueOf(args[i + 1].toUpperCase()));
+                    break;
+                case "-thread":
+                    search.setThreadName(args[i + 1]);
+                    break;
+                case "-class":
+                    search.setClassName(args[i + 1]);
+                    break;
+                case "-message":
+                    search.setMessagePattern(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        for (LogEntry log : search.search()) {
+            System.out.println(LogFormatter.format(log, args[1]));
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.reader;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.theko.logger.LogEntry;
+
+/**
+ * Follows the active log file of a {@link LogReader} directory.
+ * <p>
+ * The tailer blocks on a {@link WatchService} instead of polling. On a modification of the
+ * active file it reads the complete lines appended since, and when a new matching file is
+ * created it finishes the active file and continues with the new one from its start.
+ * An entry is passed on once the next one starts, so continuation lines written later, e.g.
+ * a stack trace, stay with it. The last entry is passed on once the file has been quiet for
+ * {@value #QUIET_MILLIS} ms, on a switch to a new file, or when the tailer is closed.
+ * A file truncated in place is read again from its start. A failed read reopens the active
+ * file where reading stopped, and a failing consumer is reported, so tailing keeps going.
+ * The tailer runs on a daemon thread, so it never keeps the application alive.
+ */
+public class LogTailer implements Runnable, AutoCloseable {
+    private static final long QUIET_MILLIS = 250;
+
+    private final LogReader reader;
+    private final Consumer<LogEntry> consumer;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    private Path activeFile;
+    private EntryScanner scanner;
+    private long resumePosition; // Position to reopen the active file at, while the scanner is closed after an error
+
+    private LogTailer(LogReader reader, Consumer<LogEntry> consumer) throws IOException {
+        this.reader = reader;
+        this.consumer = consumer;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        reader.getDirectory().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this, "LogTailer-" + reader.getDirectory().getFileName());
+        this.thread.setDaemon(true);
+
+        activeFile = newestFile();
+        if (activeFile != null) {
+            scanner = reader.open(activeFile, Files.size(activeFile));
+        }
+    }
+
+    static LogTailer start(LogReader reader, Consumer<LogEntry> consumer) throws IOException {
+        LogTailer tailer = new LogTailer(reader, consumer);
+        tailer.thread.start();
+        return tailer;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                WatchKey key;
+                if (scanner != null && scanner.hasPendingEntry()) {
+                    key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+                    if (key == null) {
+                        flush(); // No continuation lines came, the held back entry is complete
+                        continue;
+                    }
+                } else {
+                    key = watchService.take();
+                }
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    try {
+                        handle(event);
+                    } catch (IOException ioex) {
+                        // A transient error, e.g. a rotation race, must not stop tailing
+                        ioex.printStackTrace();
+                        reopen();
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Tailing stopped
+        } finally {
+            flush();
+            closeScanner();
+        }
+    }
+
+    private void handle(WatchEvent<?> event) throws IOException {
+        Object context = event.context();
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            if (scanner == null) {
+                reopen();
+            }
+            drain(false);
+        } else if (context instanceof Path && reader.matches((Path) context)) {
+            Path file = reader.getDirectory().resolve((Path) context);
+            if (file.equals(activeFile)) {
+                if (scanner == null) {
+                    reopen();
+                }
+                drain(false);
+            } else if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE || activeFile == null) {
+                switchTo(file);
+            }
+        }
+    }
+
+    /**
+     * Reopens the active file after a failed read, at the position reached so far, or
+     * the newest file if the active one is gone. The entry held back is read again.
+     * On failure the scanner stays closed, and the next event opens it again.
+     */
+    private void reopen() {
+        long position = scanner != null ? scanner.getResumePosition() : resumePosition;
+        closeScanner();
+        try {
+            if (activeFile == null || !Files.exists(activeFile)) {
+                activeFile = newestFile();
+                position = 0;
+            }
+            if (activeFile != null) {
+                scanner = reader.open(activeFile, Math.min(position, Files.size(activeFile)));
+            }
+            resumePosition = 0;
+        } catch (IOException ioex) {
+            ioex.printStackTrace();
+            resumePosition = position;
+        }
+    }
+
+    /**
+     * Passes on the entries read since the last call.
+     *
+     * @param flush Whether the last entry is passed on too, instead of being held back
+     *              for continuation lines that may still be written.
+     */
+    private void drain(boolean flush) throws IOException {
+        if (scanner == null) {
+            return;
+        }
+        if (scanner.size() < scanner.getPosition()) {
+            pass(true); // The entry held back ended where the file was cut
+            scanner.close();
+            scanner = reader.open(activeFile, 0);
+        }
+        pass(flush);
+    }
+
+    private void pass(boolean flush) throws IOException {
+        LogEntry entry;
+        while ((entry = scanner.next(flush)) != null) {
+            try {
+                consumer.accept(entry);
+            } catch (RuntimeException ex) {
+                ex.printStackTrace(); // A failing consumer must not stop tailing
+            }
+        }
+    }
+
+    private void flush() {
+        try {
+            drain(true);
+        } catch (IOException ioex) {
+            ioex.printStackTrace();
+            reopen();
+        }
+    }
+
+    private void switchTo(Path file) throws IOException {
+        drain(true);
+        closeScanner();
+        activeFile = file;
+        scanner = reader.open(file, 0);
+        drain(false);
+    }
+
+    private Path newestFile() throws IOException {
+        Path newest = null;
+        FileTime newestTime = null;
+        try (Stream<Path> listing = Files.list(reader.getDirectory())) {
+            for (Path path : (Iterable<Path>) listing::iterator) {
+                if (reader.matches(path) && Files.isRegularFile(path)) {
+                    FileTime time = Files.getLastModifiedTime(path);
+                    if (newestTime == null || time.compareTo(newestTime) > 0) {
+                        newest = path;
+                        newestTime = time;
+                    }
+                }
+            }
+        }
+        return newest;
+    }
+
+    private void closeScanner() {
+        if (scanner != null) {
+            try {
+                scanner.close();
+            } catch (IOException ioex) {
+                ioex.printStackTrace();
+            }
+            scanner = null;
+        }
+    }
+
+    /**
+     * Stops following and waits for the tailer thread to finish.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
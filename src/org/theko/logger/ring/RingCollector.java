@@ -0,0 +1,291 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.ring;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects entries from all {@link SharedLogRing} files in a directory and writes them
+ * into one merged output, ordered by time.
+ * <p>
+ * Entries are held back for a short reorder window, so entries published by different
+ * processes at nearly the same time are written in timestamp order. Entries lost because
+ * a producer lapped the collector are reported in the output. A ring reset by a restarted
+ * producer is reopened and read again from its oldest entry.
+ * <p>
+ * Run it as a separate process:
+ * <pre>
+ * java org.theko.logger.ring.RingCollector &lt;ring-directory&gt; &lt;output-file | -&gt;
+ * </pre>
+ */
+public class RingCollector implements Runnable, AutoCloseable {
+    /**
+     * File name suffix of ring files.
+     */
+    public static final String RING_SUFFIX = ".ring";
+
+    private static final long IDLE_SLEEP_MILLIS = 2;
+    private static final long RESCAN_MILLIS = 1000;
+    private static final long STALL_MILLIS = 1000;
+
+    private final Path directory;
+    private final OutputStream output;
+    private final long reorderWindowMillis;
+    private final Map<Path, Cursor> cursors = new HashMap<>();
+    private final PriorityQueue<Pending> pending = new PriorityQueue<>();
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private volatile boolean running = true;
+    private long order; // Tie breaker keeping the ring order for equal timestamps
+
+    /**
+     * Constructs a collector.
+     *
+     * @param directory           The directory containing ring files.
+     * @param output              The stream receiving the merged entries.
+     * @param reorderWindowMillis How long entries are held back to be ordered.
+     */
+    public RingCollector(Path directory, OutputStream output, long reorderWindowMillis) {
+        this.directory = directory;
+        this.output = output;
+        this.reorderWindowMillis = reorderWindowMillis;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java " + RingCollector.class.getName() + " <ring-directory> <output-file | ->");
+            System.exit(2);
+        }
+        OutputStream output = args[1].equals("-") ? System.out : new FileOutputStream(args[1], true);
+        RingCollector collector = new RingCollector(Paths.get(args[0]), output, 200);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                collector.close();
+            } catch (IOException ioex) {
+                ioex.printStackTrace();
+            }
+        }));
+        collector.run();
+    }
+
+    /**
+     * Collects until closed.
+     */
+    @Override
+    public void run() {
+        long lastScan = 0;
+        try {
+            Files.createDirectories(directory);
+            while (running) {
+                long now = System.currentTimeMillis();
+                if (now - lastScan >= RESCAN_MILLIS) {
+                    scan();
+                    lastScan = now;
+                }
+                boolean progressed = poll(now);
+                progressed |= emit(now - reorderWindowMillis);
+                if (!progressed) {
+                    Thread.sleep(IDLE_SLEEP_MILLIS);
+                }
+            }
+            for (Cursor cursor : cursors.values()) { // Final pass
+                cursor.poll(System.currentTimeMillis());
+            }
+            emit(Long.MAX_VALUE);
+            output.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ioex) {
+            ioex.printStackTrace();
+        } finally {
+            finished.countDown();
+        }
+    }
+
+    private void scan() throws IOException {
+        try (DirectoryStream<Path> rings = Files.newDirectoryStream(directory, "*" + RING_SUFFIX)) {
+            for (Path file : rings) {
+                if (!cursors.containsKey(file)) {
+                    SharedLogRing ring = SharedLogRing.open(file);
+                    if (ring != null) {
+                        cursors.put(file, new Cursor(ring));
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean poll(long now) throws IOException {
+        boolean progressed = false;
+        List<Path> reset = null;
+        for (Map.Entry<Path, Cursor> entry : cursors.entrySet()) {
+            Cursor cursor = entry.getValue();
+            if (cursor.isReset()) {
+                if (reset == null) {
+                    reset = new ArrayList<>();
+                }
+                reset.add(entry.getKey());
+            } else {
+                progressed |= cursor.poll(now);
+            }
+        }
+        if (reset != null) {
+            for (Path file : reset) {
+                reopen(file);
+            }
+        }
+        return progressed;
+    }
+
+    /**
+     * Replaces the cursor of a ring a producer has reset. If the ring is still being
+     * reset, the cursor is dropped and the next scan opens the ring again.
+     */
+    private void reopen(Path file) throws IOException {
+        cursors.remove(file).ring.close();
+        SharedLogRing ring = SharedLogRing.open(file);
+        if (ring != null) {
+            cursors.put(file, new Cursor(ring));
+        }
+    }
+
+    private boolean emit(long until) throws IOException {
+        boolean emitted = false;
+        while (!pending.isEmpty() && pending.peek().timestamp <= until) {
+            Pending entry = pending.poll();
+            output.write(entry.bytes);
+            emitted = true;
+        }
+        if (emitted) {
+            output.flush();
+        }
+        return emitted;
+    }
+
+    /**
+     * Stops collecting, writing out the entries still held back.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            finished.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Cursor cursor : cursors.values()) {
+            cursor.ring.close();
+        }
+    }
+
+    private final class Cursor {
+        private final SharedLogRing ring;
+        private final ByteBuffer payload;
+        private long next;
+        private long stalledSince = -1;
+
+        Cursor(SharedLogRing ring) {
+            this.ring = ring;
+            this.payload = ByteBuffer.allocate(ring.getMaxEntrySize());
+            this.next = Math.max(0, ring.getClaimedSequence() - ring.getSlotCount()); // Oldest entry still in the ring
+        }
+
+        /**
+         * Checks whether a producer restarted the ring: its header changed, or its
+         * claim counter went back below the next sequence to read.
+         */
+        boolean isReset() {
+            return ring.isReset() || ring.getClaimedSequence() < next;
+        }
+
+        boolean poll(long now) {
+            boolean progressed = false;
+            while (true) {
+                long claimed = ring.getClaimedSequence();
+                if (next >= claimed) {
+                    stalledSince = -1;
+                    return progressed;
+                }
+                long timestamp = ring.read(next, payload);
+                if (timestamp == Long.MIN_VALUE) {
+                    // Not committed yet; skip it if the producer seems to have died while writing
+                    if (stalledSince < 0) {
+                        stalledSince = now;
+                    } else if (now - stalledSince > STALL_MILLIS) {
+                        next++;
+                        stalledSince = -1;
+                        continue;
+                    }
+                    return progressed;
+                }
+                stalledSince = -1;
+                if (timestamp == Long.MAX_VALUE) {
+                    long oldest = Math.max(next + 1, ring.getClaimedSequence() - ring.getSlotCount());
+                    String notice = "[" + ring.getFile().getFileName() + "] " + (oldest - next) + " entries lost, collector was lapped\n";
+                    pending.add(new Pending(now, order++, notice.getBytes(StandardCharsets.UTF_8)));
+                    next = oldest;
+                    continue;
+                }
+                byte[] bytes = new byte[payload.remaining()];
+                payload.get(bytes);
+                pending.add(new Pending(timestamp, order++, bytes));
+                next++;
+                progressed = true;
+            }
+        }
+    }
+
+    private static final class Pending implements Comparable<Pending> {
+        final long timestamp;
+        final long order;
+        final byte[] bytes;
+
+        Pending(long timestamp, long order, byte[] bytes) {
+            this.timestamp = timestamp;
+            this.order = order;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int compareTo(Pending other) {
+            int byTime = Long.compare(timestamp, other.timestamp);
+            return byTime != 0 ? byTime : Long.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.ring;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A ring of fixed-size slots in a memory-mapped file, shared between processes.
+ * <p>
+ * Producers claim a sequence number with an atomic increment of the claim counter
+ * in the file header, write their entry into slot {@code sequence % slotCount} and
+ * publish it by storing a commit marker with release semantics. A slot's marker is
+ * {@code 2 * sequence + 1} while it is being written and {@code 2 * sequence + 2} once
+ * committed, so a reader can tell a committed entry from one still in progress and
+ * detect when producers have lapped it. The ring overwrites the oldest entries;
+ * producers never wait for readers.
+ * <p>
+ * File layout, in native byte order:
+ * <pre>
+ * header (128 bytes): magic, version, slot size, slot count, claim counter at offset 64
+ * slot:               commit marker (8), timestamp millis (8), length (4), payload
+ * </pre>
+ */
+public class SharedLogRing implements AutoCloseable {
+    static final int MAGIC = 0x544C5247; // "TLRG"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 128;
+    static final int CLAIM_OFFSET = 64;
+    static final int SLOT_HEADER_SIZE = 20;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int SLOT_SIZE_OFFSET = 8;
+    private static final int SLOT_COUNT_OFFSET = 12;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int slotSize;
+    private final int slotCount;
+    private final long mask;
+
+    private SharedLogRing(Path file, FileChannel channel, MappedByteBuffer buffer, int slotSize, int slotCount) {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.slotSize = slotSize;
+        this.slotCount = slotCount;
+        this.mask = slotCount - 1;
+    }
+
+    /**
+     * Opens a ring file for producing, creating and initializing it if it does not exist.
+     * An existing ring with the same geometry is reused and its sequence continued.
+     *
+     * @param file      The ring file, preferably on a memory-backed file system such as {@code /dev/shm}.
+     * @param slotCount The number of slots, a power of two.
+     * @param slotSize  The size of a slot in bytes, a multiple of 8 larger than 20.
+     *                  Longer entries are truncated.
+     * @return The opened ring.
+     * @throws IOException If the file cannot be created or mapped.
+     */
+    public static SharedLogRing create(Path file, int slotCount, int slotSize) throws IOException {
+        if (slotCount <= 0 || Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("Slot count must be a power of two.");
+        }
+        if (slotSize <= SLOT_HEADER_SIZE || slotSize % 8 != 0) {
+            throw new IllegalArgumentException("Slot size must be a multiple of 8 larger than " + SLOT_HEADER_SIZE + ".");
+        }
+        long size = HEADER_SIZE + (long) slotCount * slotSize;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Ring is too large to be mapped.");
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.nativeOrder());
+            boolean compatible = (int) INT.getAcquire(buffer, MAGIC_OFFSET) == MAGIC
+                    && buffer.getInt(VERSION_OFFSET) == VERSION
+                    && buffer.getInt(SLOT_SIZE_OFFSET) == slotSize
+                    && buffer.getInt(SLOT_COUNT_OFFSET) == slotCount;
+            if (!compatible) {
+                INT.setVolatile(buffer, MAGIC_OFFSET, 0); // Hide the ring from readers while it is reset
+                for (int i = HEADER_SIZE; i < size; i += slotSize) {
+                    LONG.setVolatile(buffer, i, 0L);
+                }
+                LONG.setVolatile(buffer, CLAIM_OFFSET, 0L);
+                buffer.putInt(VERSION_OFFSET, VERSION);
+                buffer.putInt(SLOT_SIZE_OFFSET, slotSize);
+                buffer.putInt(SLOT_COUNT_OFFSET, slotCount);
+                INT.setRelease(buffer, MAGIC_OFFSET, MAGIC);
+            }
+            return new SharedLogRing(file, channel, buffer, slotSize, slotCount);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Opens an existing ring file for consuming.
+     *
+     * @param file The ring file.
+     * @return The opened ring, or {@code null} if the file is not an initialized ring yet.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public static SharedLogRing open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                channel.close();
+                return null;
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.order(ByteOrder.nativeOrder());
+            if ((int) INT.getAcquire(header, MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+                channel.close();
+                return null;
+            }
+            int slotSize = header.getInt(SLOT_SIZE_OFFSET);
+            int slotCount = header.getInt(SLOT_COUNT_OFFSET);
+            long size = HEADER_SIZE + (long) slotCount * slotSize;
+            if (channel.size() < size) {
+                channel.close();
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.nativeOrder());
+            return new SharedLogRing(file, channel, buffer, slotSize, slotCount);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Publishes an entry into the next slot. Never blocks.
+     *
+     * @param src       The entry bytes between position and limit. The position is moved to the limit.
+     * @param timestamp The time of the entry in milliseconds since epoch, used to merge rings.
+     * @return The number of bytes consumed from {@code src}.
+     */
+    public int publish(ByteBuffer src, long timestamp) {
+        int consumed = src.remaining();
+        int length = Math.min(consumed, slotSize - SLOT_HEADER_SIZE);
+        long sequence = (long) LONG.getAndAdd(buffer, CLAIM_OFFSET, 1L);
+        int slot = slotOffset(sequence);
+
+        LONG.setVolatile(buffer, slot, 2 * sequence + 1);
+        buffer.putLong(slot + 8, timestamp);
+        buffer.putInt(slot + 16, length);
+        buffer.put(slot + SLOT_HEADER_SIZE, src, src.position(), length);
+        if (length < consumed && length > 0) {
+            buffer.put(slot + SLOT_HEADER_SIZE + length - 1, (byte) '\n'); // Keep truncated entries on their own line
+        }
+        LONG.setRelease(buffer, slot, 2 * sequence + 2);
+
+        src.position(src.limit());
+        return consumed;
+    }
+
+    /**
+     * Gets the next sequence number which will be claimed.
+     *
+     * @return The claim counter.
+     */
+    public long getClaimedSequence() {
+        return (long) LONG.getVolatile(buffer, CLAIM_OFFSET);
+    }
+
+    /**
+     * Reads the committed entry with the specified sequence number.
+     *
+     * @param sequence The sequence number to read.
+     * @param target   The buffer receiving the payload, cleared first; must hold a whole slot payload.
+     * @return The timestamp of the entry, or {@link Long#MIN_VALUE} if the entry is not committed yet,
+     *         or {@link Long#MAX_VALUE} if it was already overwritten by a later entry.
+     */
+    long read(long sequence, ByteBuffer target) {
+        int slot = slotOffset(sequence);
+        long committed = 2 * sequence + 2;
+        long marker = (long) LONG.getAcquire(buffer, slot);
+        if (marker != committed) {
+            return marker > committed ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+        long timestamp = buffer.getLong(slot + 8);
+        int length = Math.min(buffer.getInt(slot + 16), slotSize - SLOT_HEADER_SIZE);
+        target.clear();
+        target.put(0, buffer, slot + SLOT_HEADER_SIZE, Math.max(0, length));
+        target.limit(Math.max(0, length));
+
+        VarHandle.acquireFence();
+        if ((long) LONG.getVolatile(buffer, slot) != committed) {
+            return Long.MAX_VALUE; // Overwritten while copying
+        }
+        return timestamp;
+    }
+
+    /**
+     * Checks whether a producer has reset the ring since it was opened, e.g. after
+     * restarting with a different geometry, so this mapping no longer matches the file.
+     *
+     * @return true if the ring must be reopened.
+     */
+    boolean isReset() {
+        return (int) INT.getAcquire(buffer, MAGIC_OFFSET) != MAGIC
+                || buffer.getInt(SLOT_SIZE_OFFSET) != slotSize
+                || buffer.getInt(SLOT_COUNT_OFFSET) != slotCount;
+    }
+
+    private int slotOffset(long sequence) {
+        return HEADER_SIZE + (int) (sequence & mask) * slotSize;
+    }
+
+    /**
+     * @return The ring file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return The number of slots.
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * @return The maximum payload size of a slot.
+     */
+    public int getMaxEntrySize() {
+        return slotSize - SLOT_HEADER_SIZE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
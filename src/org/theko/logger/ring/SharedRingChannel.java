@@ -0,0 +1,177 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.ring;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.theko.logger.LogEntry;
+import org.theko.logger.appender.Appender;
+
+/**
+ * A channel and appender publishing each log entry into a {@link SharedLogRing}.
+ * <p>
+ * Add it to a {@link org.theko.logger.LoggerOutput} with
+ * {@link org.theko.logger.LoggerOutput#addAppender(Appender)}: each entry is published with
+ * its own time, so the {@link RingCollector} merges rings by log time even when entries are
+ * written later by an asynchronous writer. Used as a plain channel, every single write and
+ * every buffer of a gathering write is one entry, stamped with the time it is written.
+ * Writes only copy into shared memory, so the application process does no file I/O; a
+ * {@link RingCollector} in another process writes the entries out.
+ */
+public class SharedRingChannel implements GatheringByteChannel, Appender {
+    /**
+     * Default number of slots of a ring.
+     */
+    public static final int DEFAULT_SLOT_COUNT = 16384;
+
+    /**
+     * Default size of a slot in bytes.
+     */
+    public static final int DEFAULT_SLOT_SIZE = 512;
+
+    private final SharedLogRing ring;
+    private volatile boolean open = true;
+
+    /**
+     * Constructs a channel publishing into the specified ring file.
+     *
+     * @param file      The ring file, created if it does not exist.
+     * @param slotCount The number of slots, a power of two.
+     * @param slotSize  The size of a slot in bytes, a multiple of 8.
+     * @throws IOException If the ring cannot be created.
+     */
+    public SharedRingChannel(Path file, int slotCount, int slotSize) throws IOException {
+        this.ring = SharedLogRing.create(file, slotCount, slotSize);
+    }
+
+    /**
+     * Creates a channel publishing into a ring named after the current process
+     * in the specified directory, with the default geometry.
+     *
+     * @param directory The directory watched by the {@link RingCollector}.
+     * @return The channel.
+     * @throws IOException If the ring cannot be created.
+     */
+    public static SharedRingChannel forCurrentProcess(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve("process-" + ProcessHandle.current().pid() + RingCollector.RING_SUFFIX);
+        return new SharedRingChannel(file, DEFAULT_SLOT_COUNT, DEFAULT_SLOT_SIZE);
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        return ring.publish(src, System.currentTimeMillis());
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        long now = System.currentTimeMillis();
+        long written = 0;
+        for (int i = offset; i < offset + length; i++) {
+            if (srcs[i].hasRemaining()) {
+                written += ring.publish(srcs[i], now);
+            }
+        }
+        return written;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs) throws IOException {
+        return write(srcs, 0, srcs.length);
+    }
+
+    @Override
+    public void append(ByteBuffer entry) throws IOException {
+        write(entry);
+    }
+
+    @Override
+    public void append(LogEntry log, ByteBuffer entry) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        ring.publish(entry, log.getTime());
+    }
+
+    @Override
+    public void append(List<LogEntry> logs, ByteBuffer[] entries, int offset, int count) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        for (int i = offset; i < offset + count; i++) {
+            if (entries[i].hasRemaining()) {
+                ring.publish(entries[i], logs.get(i).getTime());
+            }
+        }
+    }
+
+    /**
+     * Publishing claims slots atomically, so appends may run concurrently.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * Closes the ring.
+     */
+    @Override
+    public void stop() throws IOException {
+        close();
+    }
+
+    /**
+     * Gets the ring this channel publishes into.
+     *
+     * @return The {@link SharedLogRing}.
+     */
+    public SharedLogRing getRing() {
+        return ring;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        open = false;
+        ring.close();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.throttle;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.theko.logger.LogLevel;
+
+/**
+ * Sampler which adapts its probability to keep the number of sampled
+ * log statements within a budget of entries per second.
+ * <p>
+ * Time is divided into short windows. The probability used during a window
+ * is derived from the number of statements offered during the previous one,
+ * so under a steady load the expected number of kept statements equals the budget.
+ * Statements above the sampled level are always kept and do not count against the budget.
+ */
+public class AdaptiveSampler implements Sampler {
+    private static final long WINDOW_NANOS = 100_000_000L; // 100 ms
+    private static final double WINDOWS_PER_SECOND = 1_000_000_000.0 / WINDOW_NANOS;
+
+    private final double budgetPerWindow;
+    private final LogLevel maxSampledLevel;
+
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicLong offered = new AtomicLong();
+    private volatile double probability = 1.0;
+
+    /**
+     * Constructs an adaptive sampler.
+     *
+     * @param maxEntriesPerSecond The target maximum of sampled entries per second.
+     * @param maxSampledLevel     The highest level which is sampled, e.g. {@link LogLevel#INFO}.
+     * @throws IllegalArgumentException If the budget is not positive.
+     */
+    public AdaptiveSampler(double maxEntriesPerSecond, LogLevel maxSampledLevel) {
+        if (maxEntriesPerSecond <= 0) {
+            throw new IllegalArgumentException("Entries per second budget must be positive.");
+        }
+        this.budgetPerWindow = maxEntriesPerSecond / WINDOWS_PER_SECOND;
+        this.maxSampledLevel = maxSampledLevel;
+    }
+
+    @Override
+    public double sample(LogLevel level, StackTraceElement callSite) {
+        if (level.ordinal() > maxSampledLevel.ordinal()) {
+            return 1;
+        }
+
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            long count = offered.getAndSet(0);
+            // Scale the count if more than one window has elapsed since the last statement
+            double perWindow = count * (double) WINDOW_NANOS / (now - start);
+            probability = perWindow <= budgetPerWindow ? 1.0 : budgetPerWindow / perWindow;
+        }
+        offered.incrementAndGet();
+
+        double p = probability;
+        if (p >= 1) {
+            return 1;
+        }
+        return ThreadLocalRandom.current().nextDouble() < p ? p : 0;
+    }
+
+    /**
+     * Gets the probability currently applied to sampled levels.
+     *
+     * @return The current probability in range (0, 1].
+     */
+    public double getProbability() {
+        return probability;
+    }
+}
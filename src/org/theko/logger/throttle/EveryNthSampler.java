@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.throttle;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.theko.logger.LogLevel;
+
+/**
+ * Sampler which keeps every N-th log statement of each call site.
+ * Statements above the sampled level are always kept.
+ */
+public class EveryNthSampler implements Sampler {
+    /**
+     * Maximum number of tracked call sites. When exceeded, all counters are reset.
+     */
+    private static final int MAX_CALL_SITES = 4096;
+
+    private final ConcurrentHashMap<Object, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final int n;
+    private final LogLevel maxSampledLevel;
+
+    /**
+     * Constructs an every-N-th sampler.
+     *
+     * @param n               Keep one statement out of every {@code n} per call site.
+     * @param maxSampledLevel The highest level which is sampled, e.g. {@link LogLevel#INFO}.
+     * @throws IllegalArgumentException If {@code n} is not positive.
+     */
+    public EveryNthSampler(int n, LogLevel maxSampledLevel) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("N must be positive.");
+        }
+        this.n = n;
+        this.maxSampledLevel = maxSampledLevel;
+    }
+
+    @Override
+    public double sample(LogLevel level, StackTraceElement callSite) {
+        if (n == 1 || level.ordinal() > maxSampledLevel.ordinal()) {
+            return 1;
+        }
+        Object key = callSite != null ? callSite : counters; // Unknown call sites share one counter
+        AtomicLong counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() >= MAX_CALL_SITES) {
+                counters.clear();
+            }
+            counter = counters.computeIfAbsent(key, k -> new AtomicLong());
+        }
+        return counter.getAndIncrement() % n == 0 ? 1.0 / n : 0;
+    }
+
+    @Override
+    public boolean requiresCallSite() {
+        return true;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.throttle;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.theko.logger.LogLevel;
+
+/**
+ * Sampler which keeps log statements with a fixed probability per log level.
+ * All levels are kept with probability 1 until configured otherwise.
+ */
+public class ProbabilitySampler implements Sampler {
+    private final double[] probabilities;
+
+    /**
+     * Constructs a sampler which keeps every log statement.
+     */
+    public ProbabilitySampler() {
+        this.probabilities = new double[LogLevel.values().length];
+        Arrays.fill(probabilities, 1.0);
+    }
+
+    /**
+     * Sets the probability with which statements of the specified level are kept.
+     *
+     * @param level       The log level.
+     * @param probability The probability in range [0, 1].
+     * @return This sampler, for chaining.
+     * @throws IllegalArgumentException If the probability is out of range.
+     */
+    public ProbabilitySampler setProbability(LogLevel level, double probability) {
+        if (probability < 0 || probability > 1) {
+            throw new IllegalArgumentException("Probability must be in range [0, 1].");
+        }
+        probabilities[level.ordinal()] = probability;
+        return this;
+    }
+
+    /**
+     * Gets the probability with which statements of the specified level are kept.
+     *
+     * @param level The log level.
+     * @return The probability in range [0, 1].
+     */
+    public double getProbability(LogLevel level) {
+        return probabilities[level.ordinal()];
+    }
+
+    @Override
+    public double sample(LogLevel level, StackTraceElement callSite) {
+        double probability = probabilities[level.ordinal()];
+        if (probability >= 1) {
+            return 1;
+        }
+        return ThreadLocalRandom.current().nextDouble() < probability ? probability : 0;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.throttle;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token-bucket rate limiter keyed by an arbitrary object,
+ * such as the call site of a log statement or a message template.
+ * <p>
+ * Each key owns an independent bucket which refills at {@code permitsPerSecond}
+ * and can hold up to {@code burst} permits. Buckets are implemented with the
+ * generic cell rate algorithm, so acquiring a permit is a single CAS on the
+ * bucket's theoretical arrival time. The number of denied acquisitions is
+ * counted per key and handed back on the next successful acquisition, so
+ * callers can report how many messages were suppressed.
+ */
+public class RateLimiter {
+    /**
+     * Maximum number of tracked keys. When reached, idle buckets are dropped
+     * to keep memory bounded for high-cardinality keys.
+     */
+    private static final int MAX_KEYS = 4096;
+
+    /**
+     * Longest time to refill a bucket, so arrival times compared with {@link System#nanoTime()}
+     * never overflow.
+     */
+    private static final long MAX_TOLERANCE_NANOS = Long.MAX_VALUE / 4;
+
+    private final ConcurrentHashMap<Object, Bucket> buckets = new ConcurrentHashMap<>();
+    private final long emissionIntervalNanos; // Time needed to refill one permit
+    private final long burstToleranceNanos;   // Time needed to refill the whole bucket
+
+    /**
+     * Constructs a rate limiter.
+     *
+     * @param permitsPerSecond The sustained number of permits per second for each key.
+     * @param burst            The maximum number of permits a key can use at once.
+     * @throws IllegalArgumentException If the rate or burst is not positive, or if the rate is
+     *                                  so low that refilling the whole bucket takes decades.
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate and burst must be positive.");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        long tolerance;
+        try {
+            tolerance = Math.multiplyExact(emissionIntervalNanos, (long) burst);
+        } catch (ArithmeticException ex) {
+            tolerance = Long.MAX_VALUE;
+        }
+        if (tolerance > MAX_TOLERANCE_NANOS) {
+            throw new IllegalArgumentException("Rate is too low for a burst of " + burst + ".");
+        }
+        this.burstToleranceNanos = tolerance;
+    }
+
+    /**
+     * Tries to acquire a permit for the specified key.
+     *
+     * @param key The key identifying the bucket (e.g. a call site).
+     * @return -1 if the permit was denied, otherwise the number of acquisitions
+     *         denied for this key since the previous successful one.
+     */
+    public long tryAcquire(Object key) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= MAX_KEYS) {
+                evict(System.nanoTime());
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(System.nanoTime()));
+        }
+
+        long now = System.nanoTime();
+        while (true) {
+            long arrival = bucket.arrival.get();
+            long next = (arrival - now < 0 ? now : arrival) + emissionIntervalNanos;
+            if (next - now > burstToleranceNanos) {
+                bucket.suppressed.incrementAndGet();
+                return -1;
+            }
+            if (bucket.arrival.compareAndSet(arrival, next)) {
+                return bucket.suppressed.get() == 0 ? 0 : bucket.suppressed.getAndSet(0);
+            }
+        }
+    }
+
+    /**
+     * Drops the buckets that have refilled completely, which behave like new ones.
+     * If every bucket is still in use, only the one closest to being full is dropped.
+     */
+    private void evict(long now) {
+        Map.Entry<Object, Bucket> fullest = null;
+        boolean removed = false;
+        for (Iterator<Map.Entry<Object, Bucket>> it = buckets.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<Object, Bucket> entry = it.next();
+            long arrival = entry.getValue().arrival.get();
+            if (arrival - now <= 0) {
+                it.remove();
+                removed = true;
+            } else if (fullest == null || arrival - fullest.getValue().arrival.get() < 0) {
+                fullest = entry;
+            }
+        }
+        if (!removed && fullest != null) {
+            buckets.remove(fullest.getKey(), fullest.getValue());
+        }
+    }
+
+    /**
+     * Removes all buckets, restoring full capacity for every key.
+     */
+    public void reset() {
+        buckets.clear();
+    }
+
+    /**
+     * Reduces a message to its template by collapsing every run of digits
+     * into a single {@code #}, so messages which differ only in numbers
+     * (e.g. "Iteration: 4" and "Iteration: 5") share the same bucket.
+     *
+     * @param message The log message.
+     * @return The message template.
+     */
+    public static String templateOf(String message) {
+        int length = message.length();
+        int i = 0;
+        while (i < length && !Character.isDigit(message.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return message; // Nothing to collapse, avoid copying
+        }
+
+        StringBuilder template = new StringBuilder(length).append(message, 0, i);
+        boolean inDigits = false;
+        for (; i < length; i++) {
+            char c = message.charAt(i);
+            if (Character.isDigit(c)) {
+                if (!inDigits) {
+                    template.append('#');
+                    inDigits = true;
+                }
+            } else {
+                template.append(c);
+                inDigits = false;
+            }
+        }
+        return template.toString();
+    }
+
+    private static final class Bucket {
+        final AtomicLong arrival;    // Theoretical arrival time of the next permit
+        final AtomicLong suppressed = new AtomicLong();
+
+        Bucket(long now) {
+            this.arrival = new AtomicLong(now);
+        }
+    }
+}
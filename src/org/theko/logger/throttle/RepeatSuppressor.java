@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.throttle;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.theko.logger.LogLevel;
+
+/**
+ * Collapses identical consecutive log messages.
+ * <p>
+ * A message is a repeat of the previous one when its level, text and call site
+ * are the same. Repeats are only counted; when a different message arrives the
+ * finished run is handed to a callback, which typically logs a
+ * "last message repeated N times" summary. State is kept in a single
+ * {@link AtomicReference}, so no locks are taken on the logging path.
+ */
+public class RepeatSuppressor {
+    private final AtomicReference<Run> current = new AtomicReference<>();
+
+    /**
+     * Checks whether a message repeats the previous one.
+     *
+     * @param level      The log level of the message.
+     * @param message    The log message.
+     * @param site       The call site of the message, may be {@code null}.
+     * @param onRunEnded Called with the previous run if it contained repeats and was ended by this message.
+     * @return {@code true} if the message is a repeat and should be suppressed.
+     */
+    public boolean suppress(LogLevel level, String message, StackTraceElement site, Consumer<Run> onRunEnded) {
+        while (true) {
+            Run run = current.get();
+            if (run != null && run.matches(level, message, site)) {
+                run.repeats.incrementAndGet();
+                return true;
+            }
+            if (current.compareAndSet(run, new Run(level, message, site))) {
+                if (run != null && run.repeats.get() > 0) {
+                    onRunEnded.accept(run);
+                }
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Ends the current run, reporting it if it contained repeats.
+     *
+     * @param onRunEnded Called with the current run if it contained repeats.
+     */
+    public void flush(Consumer<Run> onRunEnded) {
+        Run run = current.getAndSet(null);
+        if (run != null && run.repeats.get() > 0) {
+            onRunEnded.accept(run);
+        }
+    }
+
+    /**
+     * A run of identical consecutive messages.
+     */
+    public static final class Run {
+        private final LogLevel level;
+        private final String message;
+        private final StackTraceElement site;
+        private final AtomicLong repeats = new AtomicLong();
+
+        private Run(LogLevel level, String message, StackTraceElement site) {
+            this.level = level;
+            this.message = message;
+            this.site = site;
+        }
+
+        private boolean matches(LogLevel level, String message, StackTraceElement site) {
+            return this.level == level && Objects.equals(this.message, message) && Objects.equals(this.site, site);
+        }
+
+        /**
+         * @return The log level of the repeated message.
+         */
+        public LogLevel getLevel() {
+            return level;
+        }
+
+        /**
+         * @return The repeated message.
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * @return The call site of the repeated message, or {@code null} if unknown.
+         */
+        public StackTraceElement getSite() {
+            return site;
+        }
+
+        /**
+         * @return How many times the message was repeated after its first occurrence.
+         */
+        public long getRepeats() {
+            return repeats.get();
+        }
+    }
+}
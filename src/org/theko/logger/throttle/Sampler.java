@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.throttle;
+
+import org.theko.logger.LogLevel;
+
+/**
+ * Sampler decides whether a log statement is kept before any capture work is done.
+ * <p>
+ * A sampler returns the probability with which the statement was kept, so the
+ * resulting {@link org.theko.logger.LogEntry} can record its sample rate and
+ * downstream counts can be re-weighted by {@code 1 / rate}.
+ */
+public interface Sampler {
+    /**
+     * Decides whether a log statement is kept.
+     *
+     * @param level    The severity level of the log.
+     * @param callSite The call site of the log statement, or {@code null}
+     *                 if {@link #requiresCallSite()} returns {@code false}.
+     * @return The sample rate in range (0, 1] if the statement is kept, or 0 if it is dropped.
+     */
+    public double sample(LogLevel level, StackTraceElement callSite);
+
+    /**
+     * Tells whether this sampler needs the call site, which costs a short stack walk.
+     *
+     * @return {@code true} if {@link #sample(LogLevel, StackTraceElement)} uses the call site.
+     */
+    public default boolean requiresCallSite() {
+        return false;
+    }
+
+    /**
+     * Combines this sampler with another one. A statement is kept only if both samplers
+     * keep it, and its sample rate is the product of both rates.
+     *
+     * @param other The sampler to apply after this one.
+     * @return The combined sampler.
+     */
+    public default Sampler and(Sampler other) {
+        Sampler first = this;
+        return new Sampler() {
+            @Override
+            public double sample(LogLevel level, StackTraceElement callSite) {
+                double rate = first.sample(level, callSite);
+                return rate <= 0 ? 0 : rate * other.sample(level, callSite);
+            }
+
+            @Override
+            public boolean requiresCallSite() {
+                return first.requiresCallSite() || other.requiresCallSite();
+            }
+        };
+    }
+}
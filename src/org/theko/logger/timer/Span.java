@@ -0,0 +1,223 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.timer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.theko.logger.jfr.JfrSupport;
+import org.theko.logger.jfr.SpanEvent;
+
+/**
+ * A timed section of code, opened with {@link SpanTracer#span(String)} and closed
+ * with try-with-resources on the same thread.
+ * <p>
+ * Spans opened while another span is open on the thread become its children. A span
+ * knows its total time, the time spent in its children and its self time. Only the
+ * children reaching the child threshold of the tracer are kept in the tree; faster
+ * children only add their time to the parent.
+ * <p>
+ * Span objects are pooled per thread and reused after the root span closes, so a span
+ * must not be used after it is closed, and references to it must not be kept.
+ */
+public final class Span implements AutoCloseable {
+    static final int MAX_CHILDREN = 64; // Slow children kept per span, others are only counted
+
+    private final SpanTracer.ThreadState state;
+    private final WatchTimer timer = new WatchTimer();
+    private final List<Span> children = new ArrayList<>();
+
+    private String name;
+    private Span parent;
+    private int depth;
+    private long elapsedNanos;
+    private long childNanos;
+    private int droppedChildren;
+    private boolean open;
+    private SpanEvent event; // JFR event of the span, null while the event is disabled
+
+    Span(SpanTracer.ThreadState state) {
+        this.state = state;
+    }
+
+    /**
+     * Prepares a pooled span for a new section and starts its timer.
+     */
+    void open(String name, Span parent) {
+        this.name = name;
+        this.parent = parent;
+        this.depth = parent == null ? 0 : parent.depth + 1;
+        this.elapsedNanos = 0;
+        this.childNanos = 0;
+        this.droppedChildren = 0;
+        this.open = true;
+        if (JfrSupport.isActive()) {
+            SpanEvent spanEvent = new SpanEvent();
+            if (spanEvent.isEnabled()) {
+                spanEvent.begin();
+                this.event = spanEvent;
+            }
+        }
+        timer.reset();
+        timer.start();
+    }
+
+    /**
+     * Clears the span and its kept children so they can be reused.
+     */
+    void recycle() {
+        for (int i = 0; i < children.size(); i++) { // Indexed, so the recursion allocates no iterator
+            children.get(i).recycle();
+        }
+        children.clear();
+        name = null;
+        parent = null;
+        state.release(this);
+    }
+
+    /**
+     * Adds a closed child to this span.
+     */
+    boolean addChild(Span child, long keepNanos) {
+        childNanos += child.elapsedNanos;
+        if (child.elapsedNanos >= keepNanos && children.size() < MAX_CHILDREN) {
+            children.add(child);
+            return true;
+        }
+        if (child.elapsedNanos >= keepNanos) {
+            droppedChildren++;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the name of the span.
+     *
+     * @return The name given when the span was opened.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the enclosing span.
+     *
+     * @return The parent span, or {@code null} for a root span.
+     */
+    public Span getParent() {
+        return parent;
+    }
+
+    /**
+     * Gets the nesting depth of the span.
+     *
+     * @return 0 for a root span, the parent depth plus one otherwise.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Gets the children kept in the tree, in the order they closed.
+     *
+     * @return An unmodifiable view of the slow children.
+     */
+    public List<Span> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Gets the number of slow children left out of the tree because the span had too many.
+     *
+     * @return The number of slow children not kept.
+     */
+    public int getDroppedChildren() {
+        return droppedChildren;
+    }
+
+    /**
+     * Checks if the span is still open.
+     *
+     * @return true if the span is open, false otherwise.
+     */
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Gets the total time of the span, up to now if it is still open.
+     *
+     * @return Elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return open ? timer.getElapsedNanos() : elapsedNanos;
+    }
+
+    /**
+     * Gets the time spent in closed children of the span.
+     *
+     * @return Child time in nanoseconds.
+     */
+    public long getChildNanos() {
+        return childNanos;
+    }
+
+    /**
+     * Gets the time spent in the span itself, outside its children.
+     *
+     * @return Self time in nanoseconds.
+     */
+    public long getSelfNanos() {
+        return getElapsedNanos() - childNanos;
+    }
+
+    /**
+     * Closes the span, along with any child left open.
+     * The root span logs the tree through the tracer if it exceeded the threshold.
+     */
+    @Override
+    public void close() {
+        if (!open) {
+            return;
+        }
+        while (state.current != this && state.current != null) {
+            state.current.close();
+        }
+        timer.stop();
+        this.elapsedNanos = timer.getElapsedNanos();
+        this.open = false;
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setSpan(name, depth, elapsedNanos, getSelfNanos());
+                event.commit();
+            }
+            event = null;
+        }
+        state.current = parent;
+        state.tracer.closed(this);
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.timer;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+
+import org.theko.logger.ILogger;
+import org.theko.logger.LogLevel;
+
+/**
+ * A lightweight profiler that times nested {@link Span}s and logs the slow ones.
+ * <p>
+ * Spans form a tree per thread. When a root span closes after more than the threshold,
+ * the tracer logs one entry through its {@link ILogger} describing the span and its
+ * children that took at least the child threshold, with total and self times.
+ * Spans are pooled per thread, so timing does not allocate in steady state.
+ * <pre>
+ * SpanTracer tracer = new SpanTracer(logger, 100);
+ * try (Span span = tracer.span("handleRequest")) {
+ *     try (Span query = tracer.span("query")) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ */
+public class SpanTracer {
+    private static final int MAX_POOLED = 256; // Spans kept per thread for reuse
+
+    private final ILogger logger;
+    private final ThreadLocal<ThreadState> states = ThreadLocal.withInitial(() -> new ThreadState(this));
+
+    private volatile long thresholdNanos;
+    private volatile long childThresholdNanos;
+    private volatile LogLevel level = LogLevel.WARN;
+
+    /**
+     * Creates a tracer logging root spans slower than the threshold.
+     * The child threshold defaults to a tenth of the threshold.
+     *
+     * @param logger          The logger receiving slow span reports.
+     * @param thresholdMillis The duration in milliseconds above which a root span is logged.
+     */
+    public SpanTracer(ILogger logger, long thresholdMillis) {
+        if (logger == null) {
+            throw new IllegalArgumentException("Logger cannot be null.");
+        }
+        this.logger = logger;
+        setThresholdMillis(thresholdMillis);
+        setChildThresholdMillis(thresholdMillis / 10);
+    }
+
+    /**
+     * Opens a span on the current thread, as a child of the span open on it, if any.
+     *
+     * @param name The name of the span, preferably a constant.
+     * @return The open span, to be closed on the same thread.
+     */
+    public Span span(String name) {
+        ThreadState state = states.get();
+        Span span = state.acquire();
+        span.open(name, state.current);
+        state.current = span;
+        return span;
+    }
+
+    /**
+     * Gets the span open on the current thread.
+     *
+     * @return The innermost open span, or {@code null} if none is open.
+     */
+    public Span getCurrentSpan() {
+        return states.get().current;
+    }
+
+    /**
+     * Handles a closed span: attaches it to its parent, or reports and recycles the tree.
+     */
+    void closed(Span span) {
+        Span parent = span.getParent();
+        if (parent != null) {
+            if (!parent.addChild(span, childThresholdNanos)) {
+                span.recycle();
+            }
+            return;
+        }
+        try {
+            if (span.getElapsedNanos() > thresholdNanos) {
+                logger.log(level, describe(span));
+            }
+        } finally {
+            span.recycle();
+        }
+    }
+
+    /**
+     * Describes a span tree, one line per span.
+     *
+     * @param span The root of the tree.
+     * @return The description of the tree.
+     */
+    public static String describe(Span span) {
+        StringBuilder sb = new StringBuilder("Slow span ");
+        appendSpan(sb, span);
+        appendChildren(sb, span, 1);
+        return sb.toString();
+    }
+
+    private static void appendChildren(StringBuilder sb, Span span, int indent) {
+        for (Span child : span.getChildren()) {
+            sb.append('\n').append("  ".repeat(indent));
+            appendSpan(sb, child);
+            appendChildren(sb, child, indent + 1);
+        }
+        if (span.getDroppedChildren() > 0) {
+            sb.append('\n').append("  ".repeat(indent))
+              .append("... and ").append(span.getDroppedChildren()).append(" more slow children");
+        }
+    }
+
+    private static void appendSpan(StringBuilder sb, Span span) {
+        sb.append('\'').append(span.getName()).append("' took ")
+          .append(String.format(Locale.ROOT, "%.3f ms (self %.3f ms)",
+                  span.getElapsedNanos() / 1e6, span.getSelfNanos() / 1e6));
+    }
+
+    /**
+     * Sets the duration above which a root span is logged.
+     *
+     * @param thresholdMillis The threshold in milliseconds.
+     */
+    public void setThresholdMillis(long thresholdMillis) {
+        if (thresholdMillis < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative.");
+        }
+        this.thresholdNanos = thresholdMillis * 1_000_000;
+    }
+
+    /**
+     * Gets the duration above which a root span is logged.
+     *
+     * @return The threshold in milliseconds.
+     */
+    public long getThresholdMillis() {
+        return thresholdNanos / 1_000_000;
+    }
+
+    /**
+     * Sets the duration from which a child span is kept in the tree and reported.
+     *
+     * @param childThresholdMillis The child threshold in milliseconds.
+     */
+    public void setChildThresholdMillis(long childThresholdMillis) {
+        if (childThresholdMillis < 0) {
+            throw new IllegalArgumentException("Child threshold must not be negative.");
+        }
+        this.childThresholdNanos = childThresholdMillis * 1_000_000;
+    }
+
+    /**
+     * Gets the duration from which a child span is kept in the tree and reported.
+     *
+     * @return The child threshold in milliseconds.
+     */
+    public long getChildThresholdMillis() {
+        return childThresholdNanos / 1_000_000;
+    }
+
+    /**
+     * Sets the level of slow span reports.
+     *
+     * @param level The log level, WARN by default.
+     */
+    public void setLevel(LogLevel level) {
+        if (level == null) {
+            throw new IllegalArgumentException("Level cannot be null.");
+        }
+        this.level = level;
+    }
+
+    /**
+     * Gets the level of slow span reports.
+     *
+     * @return The log level.
+     */
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * The open span and the span pool of one thread.
+     */
+    static final class ThreadState {
+        final SpanTracer tracer;
+        final ArrayDeque<Span> pool = new ArrayDeque<>();
+        Span current;
+
+        ThreadState(SpanTracer tracer) {
+            this.tracer = tracer;
+        }
+
+        Span acquire() {
+            Span span = pool.poll();
+            return span != null ? span : new Span(this);
+        }
+
+        void release(Span span) {
+            if (pool.size() < MAX_POOLED) {
+                pool.push(span);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.timer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the CPU time and the allocated bytes of the current thread from the {@link ThreadMXBean}.
+ * Each counter reads -1 when the JVM does not support it.
+ */
+final class ThreadResources {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean EXTENDED_THREADS =
+            THREADS instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) THREADS : null;
+
+    private static final boolean CPU_TIME_SUPPORTED;
+    private static final boolean ALLOCATION_SUPPORTED;
+
+    static {
+        boolean cpu = THREADS.isCurrentThreadCpuTimeSupported();
+        if (cpu && !THREADS.isThreadCpuTimeEnabled()) {
+            try {
+                THREADS.setThreadCpuTimeEnabled(true);
+            } catch (UnsupportedOperationException | SecurityException ex) {
+                cpu = false;
+            }
+        }
+        CPU_TIME_SUPPORTED = cpu;
+
+        boolean allocation = EXTENDED_THREADS != null && EXTENDED_THREADS.isThreadAllocatedMemorySupported();
+        if (allocation && !EXTENDED_THREADS.isThreadAllocatedMemoryEnabled()) {
+            try {
+                EXTENDED_THREADS.setThreadAllocatedMemoryEnabled(true);
+            } catch (UnsupportedOperationException | SecurityException ex) {
+                allocation = false;
+            }
+        }
+        ALLOCATION_SUPPORTED = allocation;
+    }
+
+    private ThreadResources() {
+        throw new IllegalAccessError("Cannot make instance of ThreadResources!");
+    }
+
+    /**
+     * Checks if the CPU time of the current thread can be read.
+     *
+     * @return true if CPU time is supported, false otherwise.
+     */
+    static boolean isCpuTimeSupported() {
+        return CPU_TIME_SUPPORTED;
+    }
+
+    /**
+     * Checks if the allocated bytes of the current thread can be read.
+     *
+     * @return true if allocation accounting is supported, false otherwise.
+     */
+    static boolean isAllocationSupported() {
+        return ALLOCATION_SUPPORTED;
+    }
+
+    /**
+     * Gets the CPU time of the current thread.
+     *
+     * @return CPU time in nanoseconds, or -1 if not supported.
+     */
+    static long cpuTimeNanos() {
+        return CPU_TIME_SUPPORTED ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    /**
+     * Gets the number of bytes allocated by the current thread.
+     *
+     * @return Allocated bytes, or -1 if not supported.
+     */
+    static long allocatedBytes() {
+        return ALLOCATION_SUPPORTED ? EXTENDED_THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Alex Krasnobaev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+*/
+
+package org.theko.logger.timer;
+
+import java.util.Locale;
+
+/**
+ * Aggregates the wall time, CPU time and allocated bytes of repeated measurements.
+ * A CPU time well below the wall time points to a blocked section, a CPU time close
+ * to it to a CPU-bound one, and a high allocation rate to an allocation-heavy one.
+ * <p>
+ * Measurements without CPU time or allocations, such as those of timers that do not
+ * track resources, count only towards the wall time. This class is thread-safe.
+ */
+public class TimerStats {
+    private long count;
+    private long totalWallNanos;
+    private long minWallNanos = Long.MAX_VALUE;
+    private long maxWallNanos;
+
+    private long cpuCount;
+    private long totalCpuNanos;
+    private long cpuWallNanos; // Wall time of the measurements with CPU time
+
+    private long allocationCount;
+    private long totalAllocatedBytes;
+
+    /**
+     * Records a stopped timer.
+     *
+     * @param timer The timer to record.
+     */
+    public void record(WatchTimer timer) {
+        record(timer.getElapsedNanos(), timer.getCpuTimeNanos(), timer.getAllocatedBytes());
+    }
+
+    /**
+     * Records a measurement.
+     *
+     * @param wallNanos      The wall time in nanoseconds.
+     * @param cpuNanos       The CPU time in nanoseconds, or -1 if unknown.
+     * @param allocatedBytes The allocated bytes, or -1 if unknown.
+     */
+    public synchronized void record(long wallNanos, long cpuNanos, long allocatedBytes) {
+        count++;
+        totalWallNanos += wallNanos;
+        minWallNanos = Math.min(minWallNanos, wallNanos);
+        maxWallNanos = Math.max(maxWallNanos, wallNanos);
+        if (cpuNanos >= 0) {
+            cpuCount++;
+            totalCpuNanos += cpuNanos;
+            cpuWallNanos += wallNanos;
+        }
+        if (allocatedBytes >= 0) {
+            allocationCount++;
+            totalAllocatedBytes += allocatedBytes;
+        }
+    }
+
+    /**
+     * Gets the number of recorded measurements.
+     *
+     * @return The measurement count.
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the total wall time.
+     *
+     * @return Total wall time in nanoseconds.
+     */
+    public synchronized long getTotalWallNanos() {
+        return totalWallNanos;
+    }
+
+    /**
+     * Gets the mean wall time.
+     *
+     * @return Mean wall time in nanoseconds, or 0 if nothing was recorded.
+     */
+    public synchronized long getMeanWallNanos() {
+        return count == 0 ? 0 : totalWallNanos / count;
+    }
+
+    /**
+     * Gets the shortest wall time.
+     *
+     * @return Minimum wall time in nanoseconds, or 0 if nothing was recorded.
+     */
+    public synchronized long getMinWallNanos() {
+        return count == 0 ? 0 : minWallNanos;
+    }
+
+    /**
+     * Gets the longest wall time.
+     *
+     * @return Maximum wall time in nanoseconds.
+     */
+    public synchronized long getMaxWallNanos() {
+        return maxWallNanos;
+    }
+
+    /**
+     * Gets the total CPU time.
+     *
+     * @return Total CPU time in nanoseconds, or -1 if no measurement had CPU time.
+     */
+    public synchronized long getTotalCpuNanos() {
+        return cpuCount == 0 ? -1 : totalCpuNanos;
+    }
+
+    /**
+     * Gets the mean CPU time.
+     *
+     * @return Mean CPU time in nanoseconds, or -1 if no measurement had CPU time.
+     */
+    public synchronized long getMeanCpuNanos() {
+        return cpuCount == 0 ? -1 : totalCpuNanos / cpuCount;
+    }
+
+    /**
+     * Gets the share of the wall time spent on the CPU, over the measurements with CPU time.
+     * Values near 1 mean CPU-bound, values near 0 mean blocked or waiting.
+     *
+     * @return The CPU to wall time ratio, or -1 if no measurement had CPU time.
+     */
+    public synchronized double getCpuRatio() {
+        if (cpuCount == 0) {
+            return -1;
+        }
+        return cpuWallNanos == 0 ? 0 : (double) totalCpuNanos / cpuWallNanos;
+    }
+
+    /**
+     * Gets the total allocated bytes.
+     *
+     * @return Total allocated bytes, or -1 if no measurement had allocations.
+     */
+    public synchronized long getTotalAllocatedBytes() {
+        return allocationCount == 0 ? -1 : totalAllocatedBytes;
+    }
+
+    /**
+     * Gets the mean allocated bytes.
+     *
+     * @return Mean allocated bytes, or -1 if no measurement had allocations.
+     */
+    public synchronized long getMeanAllocatedBytes() {
+        return allocationCount == 0 ? -1 : totalAllocatedBytes / allocationCount;
+    }
+
+    /**
+     * Clears all recorded measurements.
+     */
+    public synchronized void reset() {
+        count = 0;
+        totalWallNanos = 0;
+        minWallNanos = Long.MAX_VALUE;
+        maxWallNanos = 0;
+        cpuCount = 0;
+        totalCpuNanos = 0;
+        cpuWallNanos = 0;
+        allocationCount = 0;
+        totalAllocatedBytes = 0;
+    }
+
+    /**
+     * Describes the stats, for example
+     * {@code count=10 wall=1.200/0.900/2.100 ms cpu=1.100 ms (92%) alloc=4096 B}
+     * with the mean, minimum and maximum wall times and the mean CPU time and allocations.
+     *
+     * @return The description of the stats.
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("count=").append(count);
+        if (count > 0) {
+            sb.append(String.format(Locale.ROOT, " wall=%.3f/%.3f/%.3f ms",
+                    getMeanWallNanos() / 1e6, minWallNanos / 1e6, maxWallNanos / 1e6));
+        }
+        if (cpuCount > 0) {
+            sb.append(String.format(Locale.ROOT, " cpu=%.3f ms (%.0f%%)",
+                    getMeanCpuNanos() / 1e6, getCpuRatio() * 100));
+        }
+        if (allocationCount > 0) {
+            sb.append(" alloc=").append(getMeanAllocatedBytes()).append(" B");
+        }
+        return sb.toString();
+    }
+}
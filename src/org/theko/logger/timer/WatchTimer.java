@@ -27,6 +27,11 @@ package org.theko.logger.timer;
 /**
  * A simple timer utility class to measure elapsed time in nanoseconds and milliseconds.
 * It supports starting, stopping, pausing, resuming, and resetting the timer.
+* <p>
+* With resource tracking enabled, the timer also measures the CPU time and the bytes
+* allocated by the thread while it runs. Comparing them with the wall time tells whether
+* a section was blocked, CPU-bound or allocation-heavy. A tracking timer must be started,
+* paused, resumed and stopped on the thread it measures.
 */
 public class WatchTimer {
     private long started = -1;       // Start time in nanoseconds
@@ -34,12 +39,28 @@ public class WatchTimer {
     private long pausedTime = 0;     // Total paused duration in nanoseconds
     private long pauseStart = -1;    // Time when pause started in nanoseconds
 
+    private final boolean trackResources;
+    private boolean accumulating;    // Whether CPU time and allocations are being accumulated
+    private long cpuMark;            // Thread CPU time when accumulation last began
+    private long allocatedMark;      // Thread allocated bytes when accumulation last began
+    private long cpuTime;            // Accumulated CPU time in nanoseconds
+    private long allocatedBytes;     // Accumulated allocated bytes
+
     /**
      * Default constructor for WatchTimer.
     * Initializes the timer but does not start it.
     */
     public WatchTimer() {
-        // Default constructor
+        this(false);
+    }
+
+    /**
+     * Creates a timer that optionally tracks CPU time and allocated bytes.
+    *
+    * @param trackResources Whether to measure the thread CPU time and allocations.
+    */
+    public WatchTimer(boolean trackResources) {
+        this.trackResources = trackResources;
     }
 
     /**
@@ -49,10 +70,15 @@ public class WatchTimer {
     public void start() {
         if (started == -1) {
             this.started = System.nanoTime();
+            this.cpuTime = 0;
+            this.allocatedBytes = 0;
         }
         this.ended = -1;    // Clear the end time as the timer is running
         this.pausedTime = 0;
         this.pauseStart = -1;
+        if (trackResources && !accumulating) {
+            mark();
+        }
     }
 
     /**
@@ -62,6 +88,7 @@ public class WatchTimer {
     public void pause() {
         if (isRunning() && pauseStart == -1) {
             this.pauseStart = System.nanoTime();
+            accumulate();
         }
     }
 
@@ -72,6 +99,9 @@ public class WatchTimer {
         if (pauseStart != -1) {
             this.pausedTime += System.nanoTime() - pauseStart;
             this.pauseStart = -1;
+            if (trackResources) {
+                mark();
+            }
         }
     }
 
@@ -86,6 +116,21 @@ public class WatchTimer {
             resume(); // Automatically resume paused timer before stopping
         }
         this.ended = System.nanoTime();
+        accumulate();
+    }
+
+    private void mark() {
+        this.cpuMark = ThreadResources.cpuTimeNanos();
+        this.allocatedMark = ThreadResources.allocatedBytes();
+        this.accumulating = true;
+    }
+
+    private void accumulate() {
+        if (accumulating) {
+            this.cpuTime += ThreadResources.cpuTimeNanos() - cpuMark;
+            this.allocatedBytes += ThreadResources.allocatedBytes() - allocatedMark;
+            this.accumulating = false;
+        }
     }
 
     /**
@@ -112,6 +157,40 @@ public class WatchTimer {
         return getElapsedNanos() / 1_000_000;
     }
 
+    /**
+     * Returns the CPU time used by the thread while the timer ran, excluding pauses.
+    * If the timer is running, it includes the CPU time up to now.
+    *
+    * @return CPU time in nanoseconds, or -1 if not tracked or not supported.
+    */
+    public long getCpuTimeNanos() {
+        if (!trackResources || !ThreadResources.isCpuTimeSupported()) {
+            return -1;
+        }
+        return cpuTime + (accumulating ? ThreadResources.cpuTimeNanos() - cpuMark : 0);
+    }
+
+    /**
+     * Returns the bytes allocated by the thread while the timer ran, excluding pauses.
+    * If the timer is running, it includes the allocations up to now.
+    *
+    * @return Allocated bytes, or -1 if not tracked or not supported.
+    */
+    public long getAllocatedBytes() {
+        if (!trackResources || !ThreadResources.isAllocationSupported()) {
+            return -1;
+        }
+        return allocatedBytes + (accumulating ? ThreadResources.allocatedBytes() - allocatedMark : 0);
+    }
+
+    /**
+     * Checks if the timer tracks CPU time and allocated bytes.
+    * @return true if resources are tracked, false otherwise.
+    */
+    public boolean isTrackingResources() {
+        return trackResources;
+    }
+
     /**
      * Resets the timer to its initial state.
     */
@@ -120,6 +199,9 @@ public class WatchTimer {
         this.ended = -1;
         this.pausedTime = 0;
         this.pauseStart = -1;
+        this.accumulating = false;
+        this.cpuTime = 0;
+        this.allocatedBytes = 0;
     }
 
     /**
@@ -197,4 +279,31 @@ public class WatchTimer {
     public static long getExecutionTimeMillis(Runnable runnable) {
         return getExecutionTimeNanos(runnable) / 1_000_000;
     }
+
+    /**
+     * Measures the execution time, CPU time and allocations of a Runnable, and adds them to the stats.
+    *
+    * @param runnable The runnable to measure.
+    * @param stats    The stats aggregating the runs.
+    * @return Execution time in nanoseconds.
+    */
+    public static long getExecutionTimeNanos(Runnable runnable, TimerStats stats) {
+        WatchTimer timer = new WatchTimer(true);
+        timer.start();
+        runnable.run();
+        timer.stop();
+        stats.record(timer);
+        return timer.getElapsedNanos();
+    }
+
+    /**
+     * Measures the execution time, CPU time and allocations of a Runnable, and adds them to the stats.
+    *
+    * @param runnable The runnable to measure.
+    * @param stats    The stats aggregating the runs.
+    * @return Execution time in milliseconds.
+    */
+    public static long getExecutionTimeMillis(Runnable runnable, TimerStats stats) {
+        return getExecutionTimeNanos(runnable, stats) / 1_000_000;
+    }
 }
@@ -0,0 +1,271 @@
+package test;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.theko.logger.GlobalLogger;
+import org.theko.logger.LogEntry;
+import org.theko.logger.LogLevel;
+import org.theko.logger.Logger;
+import org.theko.logger.LoggerOutput;
+
+// Hammers Logger, LoggerOutput and GlobalLogger from many threads and checks that no entry
+// is lost or duplicated, that output lines never interleave and that every thread's entries
+// stay in order. Exits with status 1 on the first failed check.
+public class ConcurrencyStressTest {
+    private static final int THREADS = 8;
+    private static final int ENTRIES_PER_THREAD = 20_000;
+
+    private static final String PATTERN_A = "-type [-thread] -message";
+    private static final String PATTERN_B = "[-thread] -type: -message";
+    private static final Pattern LINE = Pattern.compile("(?:INFO \\[(worker-\\d+)\\] |\\[(worker-\\d+)\\] INFO: )T(\\d+) #(\\d+)");
+    private static final Pattern MESSAGE = Pattern.compile("T(\\d+) #(\\d+)");
+
+    private static final Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        runLogger(false);
+        runLogger(true);
+        runGlobalLogger();
+
+        if (!errors.isEmpty()) {
+            errors.peek().printStackTrace();
+            fail(errors.size() + " exception(s) in stress threads");
+        }
+        System.out.println(failures == 0 ? "PASSED" : "FAILED with " + failures + " failure(s)");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static void runLogger(boolean async) throws Exception {
+        CapturingStream sink = new CapturingStream();
+        LoggerOutput output = new LoggerOutput(LogLevel.DEBUG);
+        output.addOutputStream(sink);
+        output.setPattern(PATTERN_A);
+        if (async) {
+            output.setAsync(true, 8192);
+        }
+        Logger logger = new Logger(output);
+
+        List<CapturingStream> lateSinks = new ArrayList<>();
+        AtomicBoolean logging = new AtomicBoolean(true);
+        List<Thread> hammers = new ArrayList<>();
+        hammers.add(hammer("readers", logging, () -> {
+            int size = 0;
+            for (LogEntry log : logger.getAllLogs()) {
+                size += log.getMessage().length() > 0 ? 1 : 0;
+            }
+            logger.getLastLog();
+            logger.getAllLogsArray();
+        }));
+        hammers.add(hammer("mutators", logging, () -> {
+            output.setPattern(output.getPattern().equals(PATTERN_A) ? PATTERN_B : PATTERN_A);
+            if (lateSinks.size() < 16) {
+                CapturingStream late = new CapturingStream();
+                lateSinks.add(late);
+                output.addOutputStream(late);
+            }
+        }));
+
+        double seconds = runWorkers((thread, i) -> logger.log(LogLevel.INFO, "T" + thread + " #" + i));
+        logging.set(false);
+        for (Thread hammer : hammers) {
+            hammer.join();
+        }
+        if (async) {
+            output.setAsync(false, 0); // Drains the queue
+        }
+
+        String name = async ? "Logger (async)" : "Logger";
+        checkEntries(name + " entries", logger.getAllLogs());
+        checkLines(name + " output", sink.lines(), true);
+        for (CapturingStream late : lateSinks) {
+            checkLines(name + " late sink", late.lines(), false);
+        }
+        report(name, seconds);
+    }
+
+    private static void runGlobalLogger() throws Exception {
+        CapturingStream sink = new CapturingStream();
+        GlobalLogger.getLoggerOutput().setSingleOutputStream(sink);
+        GlobalLogger.getLoggerOutput().setPattern(PATTERN_A);
+        int before = GlobalLogger.getAllLogs().size();
+
+        AtomicBoolean logging = new AtomicBoolean(true);
+        Thread reader = hammer("global-readers", logging, () -> {
+            for (LogEntry log : GlobalLogger.getAllLogs()) {
+                log.getLevel();
+            }
+        });
+        double seconds = runWorkers((thread, i) -> GlobalLogger.log(LogLevel.INFO, "T" + thread + " #" + i));
+        logging.set(false);
+        reader.join();
+
+        List<LogEntry> entries = GlobalLogger.getAllLogs();
+        checkEntries("GlobalLogger entries", entries.subList(before, entries.size()));
+        checkLines("GlobalLogger output", sink.lines(), true);
+        report("GlobalLogger", seconds);
+    }
+
+    private interface Work {
+        void run(int thread, int index);
+    }
+
+    private static double runWorkers(Work work) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < ENTRIES_PER_THREAD; i++) {
+                        work.run(thread, i);
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }, "worker-" + t);
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return (System.nanoTime() - begin) / 1e9;
+    }
+
+    private static Thread hammer(String name, AtomicBoolean running, Runnable action) {
+        Thread thread = new Thread(() -> {
+            try {
+                while (running.get()) {
+                    action.run();
+                    Thread.sleep(1); // Copying all entries is linear, so back-to-back reads would starve the workers
+                }
+            } catch (Throwable e) {
+                errors.add(e);
+            }
+        }, name);
+        thread.start();
+        return thread;
+    }
+
+    // Every (thread, index) pair exactly once, in increasing order per thread
+    private static void checkEntries(String name, List<LogEntry> entries) {
+        int[] next = new int[THREADS];
+        for (LogEntry log : entries) {
+            Matcher matcher = MESSAGE.matcher(log.getMessage());
+            if (!matcher.matches()) {
+                fail(name + ": unexpected message " + log.getMessage());
+                return;
+            }
+            int thread = Integer.parseInt(matcher.group(1));
+            int index = Integer.parseInt(matcher.group(2));
+            if (index != next[thread]) {
+                fail(name + ": thread " + thread + " expected #" + next[thread] + " but found #" + index);
+                return;
+            }
+            next[thread]++;
+        }
+        checkComplete(name, next);
+    }
+
+    // Every line whole, and in increasing order per thread; complete sinks must contain every entry
+    private static void checkLines(String name, List<String> lines, boolean complete) {
+        Map<Integer, Integer> last = new HashMap<>();
+        int[] next = new int[THREADS];
+        for (String line : lines) {
+            Matcher matcher = LINE.matcher(line);
+            if (!matcher.matches()) {
+                fail(name + ": torn line \"" + line + "\"");
+                return;
+            }
+            String threadName = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+            int thread = Integer.parseInt(matcher.group(3));
+            int index = Integer.parseInt(matcher.group(4));
+            if (!threadName.equals("worker-" + thread)) {
+                fail(name + ": line from " + threadName + " carries the message of thread " + thread);
+                return;
+            }
+            Integer previous = last.put(thread, index);
+            if (complete ? index != next[thread] : previous != null && index <= previous) {
+                fail(name + ": thread " + thread + " out of order at #" + index);
+                return;
+            }
+            next[thread]++;
+        }
+        if (complete) {
+            checkComplete(name, next);
+        }
+    }
+
+    private static void checkComplete(String name, int[] counts) {
+        for (int t = 0; t < THREADS; t++) {
+            if (counts[t] != ENTRIES_PER_THREAD) {
+                fail(name + ": thread " + t + " has " + counts[t] + " of " + ENTRIES_PER_THREAD + " entries");
+            }
+        }
+    }
+
+    private static void report(String name, double seconds) {
+        System.out.printf("%-16s %d threads x %d entries in %.2f s, %.0f entries/s%n",
+                name, THREADS, ENTRIES_PER_THREAD, seconds, THREADS * ENTRIES_PER_THREAD / seconds);
+    }
+
+    private static void fail(String message) {
+        failures++;
+        System.out.println("FAIL " + message);
+    }
+
+    // Deliberately not thread-safe, and yields in the middle of a write to provoke torn lines
+    static class CapturingStream extends OutputStream {
+        private byte[] bytes = new byte[1 << 16];
+        private int size;
+
+        @Override
+        public void write(int b) {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            int half = len / 2;
+            append(b, off, half);
+            Thread.yield();
+            append(b, off + half, len - half);
+        }
+
+        private void append(byte[] b, int off, int len) {
+            if (size + len > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + len));
+            }
+            System.arraycopy(b, off, bytes, size, len);
+            size += len;
+        }
+
+        List<String> lines() {
+            List<String> lines = new ArrayList<>();
+            String text = new String(bytes, 0, size);
+            int start = 0;
+            for (int end = text.indexOf('\n'); end >= 0; end = text.indexOf('\n', start)) {
+                lines.add(text.substring(start, end));
+                start = end + 1;
+            }
+            if (start < text.length()) {
+                lines.add(text.substring(start));
+            }
+            return lines;
+        }
+    }
+}
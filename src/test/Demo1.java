@@ -33,7 +33,7 @@ public class Demo1 extends JFrame {
 
         // Method to log errors in the game
         public static void logError(String message, Throwable t) {
-            GlobalLogger.log(LogLevel.ERROR, message + ", caused by: " + t.getClass());
+            GlobalLogger.log(LogLevel.ERROR, message, t);
         }
     }
 
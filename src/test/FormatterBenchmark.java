@@ -0,0 +1,48 @@
+package test;
+
+import org.theko.logger.CallerInfo;
+import org.theko.logger.LogEntry;
+import org.theko.logger.LogFormatter;
+import org.theko.logger.LogLevel;
+import org.theko.logger.LogPattern;
+
+// Compares interpreted patterns with generated formatter classes
+public class FormatterBenchmark {
+    private static final int ENTRIES = 1024;
+    private static final int ITERATIONS = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        LogEntry[] entries = new LogEntry[ENTRIES];
+        CallerInfo caller = new CallerInfo(new StackTraceElement("test.FormatterBenchmark", "main", "FormatterBenchmark.java", 42));
+        for (int i = 0; i < ENTRIES; i++) {
+            entries[i] = new LogEntry(LogLevel.values()[i % 5], "Benchmark message number " + i, System.currentTimeMillis() + i, "main", caller, null);
+        }
+
+        String[] patterns = { LogFormatter.DEFAULT_INFO, LogFormatter.DETAILED_INFO };
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.println("Round " + round + ":");
+            for (String pattern : patterns) {
+                run("interpreted", LogPattern.compile(pattern), entries, false);
+                run("generated", LogPattern.compile(pattern), entries, true);
+            }
+        }
+    }
+
+    private static void run(String name, LogPattern pattern, LogEntry[] entries, boolean generated) {
+        LogFormatter.setCodeGenerationEnabled(generated);
+        StringBuilder out = new StringBuilder(256);
+        long chars = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            out.setLength(0);
+            pattern.format(entries[i & (ENTRIES - 1)], out);
+            chars += out.length();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("  %-11s %-9s %6.1f ns/entry, %10.0f entries/s (%d chars)%n",
+                name, pattern.isGenerated() ? "(class)" : "(segments)", (double) elapsed / ITERATIONS,
+                ITERATIONS / (elapsed / 1e9), chars);
+    }
+}
@@ -0,0 +1,107 @@
+package test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.theko.logger.CallerInfo;
+import org.theko.logger.LogEntry;
+import org.theko.logger.LogFormatter;
+import org.theko.logger.LogLevel;
+import org.theko.logger.LoggerOutput;
+
+// Compares the per-entry write loop with gathering writes of whole batches
+public class GatheringWriteBenchmark {
+    private static final int ENTRIES = 200_000;
+    private static final int BATCH_SIZE = 256;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        List<LogEntry> entries = new ArrayList<>(ENTRIES);
+        CallerInfo caller = new CallerInfo(new StackTraceElement("test.GatheringWriteBenchmark", "main", "GatheringWriteBenchmark.java", 42));
+        for (int i = 0; i < ENTRIES; i++) {
+            entries.add(new LogEntry(LogLevel.INFO, "Benchmark message number " + i, System.currentTimeMillis(), "main", caller, null));
+        }
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.println("Round " + round + ":");
+            run("per-entry", entries, false);
+            run("gathering", entries, true);
+        }
+    }
+
+    private static void run(String name, List<LogEntry> entries, boolean batched) throws IOException {
+        Path file = Files.createTempFile("gathering-bench", ".log");
+        try (CountingChannel channel = new CountingChannel(FileChannel.open(file, StandardOpenOption.WRITE))) {
+            LoggerOutput output = new LoggerOutput(LogLevel.DEBUG);
+            output.setPattern(LogFormatter.DEFAULT_INFO);
+            output.addChannel(channel);
+
+            long start = System.nanoTime();
+            if (batched) {
+                for (int i = 0; i < entries.size(); i += BATCH_SIZE) {
+                    output.addToOutput(entries.subList(i, Math.min(i + BATCH_SIZE, entries.size())));
+                }
+            } else {
+                for (LogEntry entry : entries) {
+                    output.addToOutput(entry);
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            double seconds = elapsed / 1e9;
+            System.out.printf("  %-10s %8d write calls, %10.0f entries/s, %7.1f MB/s%n",
+                    name, channel.calls, entries.size() / seconds, channel.bytes / seconds / (1024 * 1024));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Counts write calls, each one is a single write/writev system call on a FileChannel
+    static class CountingChannel implements GatheringByteChannel {
+        private final FileChannel delegate;
+        long calls;
+        long bytes;
+
+        CountingChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            calls++;
+            int written = delegate.write(src);
+            bytes += written;
+            return written;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            calls++;
+            long written = delegate.write(srcs, offset, length);
+            bytes += written;
+            return written;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs) throws IOException {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.theko.logger.CallerInfo;
+import org.theko.logger.LogEntry;
+import org.theko.logger.LogFormatter;
+import org.theko.logger.LogLevel;
+import org.theko.logger.reader.LogSearch;
+
+// Measures how the parallel log search scales with the number of worker threads
+public class LogSearchBenchmark {
+    private static final int FILES = 6;
+    private static final int GZIP_FILES = 2;
+    private static final int ENTRIES_PER_FILE = 150_000;
+    private static final String PATTERN = LogFormatter.DEFAULT_INFO;
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("log-search-bench");
+        try {
+            long bytes = generate(directory);
+            System.out.printf("%d files, %.1f MB uncompressed%n", FILES + GZIP_FILES, bytes / (1024.0 * 1024));
+
+            int cores = Runtime.getRuntime().availableProcessors();
+            double baseline = 0;
+            for (int threads = 1; threads <= cores; threads *= 2) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                double best = Double.MAX_VALUE;
+                int matches = 0;
+                for (int round = 0; round < 3; round++) {
+                    LogSearch search = new LogSearch(directory, PATTERN);
+                    search.setMinLevel(LogLevel.WARN);
+                    search.setMessagePattern("timeout after 9\\d ms");
+                    long start = System.nanoTime();
+                    List<LogEntry> found = search.search(pool);
+                    best = Math.min(best, (System.nanoTime() - start) / 1e9);
+                    matches = found.size();
+                }
+                pool.shutdown();
+                if (threads == 1) {
+                    baseline = best;
+                }
+                System.out.printf("  %2d threads: %7.1f MB/s, %6d matches, speedup %.2f%n",
+                        threads, bytes / best / (1024 * 1024), matches, baseline / best);
+                if (threads * 2 > cores && threads != cores) {
+                    threads = cores / 2; // Finish with all cores
+                }
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private static long generate(Path directory) throws IOException {
+        long bytes = 0;
+        long time = System.currentTimeMillis() - 86_400_000L;
+        CallerInfo caller = new CallerInfo(new StackTraceElement("com.shop.net.Client", "send", "Client.java", 120));
+        for (int file = 0; file < FILES + GZIP_FILES; file++) {
+            boolean gzip = file >= FILES;
+            Path path = directory.resolve("app-" + file + (gzip ? ".log.gz" : ".log"));
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(gzip
+                    ? new GZIPOutputStream(Files.newOutputStream(path)) : Files.newOutputStream(path), StandardCharsets.UTF_8))) {
+                for (int i = 0; i < ENTRIES_PER_FILE; i++) {
+                    LogLevel level = i % 10 == 0 ? LogLevel.WARN : LogLevel.INFO;
+                    String message = level == LogLevel.WARN ? "Request timeout after " + (i % 100) + " ms" : "Request " + i + " completed";
+                    String line = LogFormatter.format(new LogEntry(level, message, time, "worker-" + (i % 8), caller, null), PATTERN) + "\n";
+                    out.write(line);
+                    bytes += line.length();
+                    time += 3;
+                }
+            }
+        }
+        return bytes;
+    }
+}
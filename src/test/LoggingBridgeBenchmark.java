@@ -0,0 +1,61 @@
+package test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.Level;
+import java.util.logging.SimpleFormatter;
+
+import org.theko.logger.LogFormatter;
+import org.theko.logger.Logger;
+import org.theko.logger.LoggerFactory;
+import org.theko.logger.bridge.JulBridgeHandler;
+import org.theko.logger.bridge.ThekoLoggerFinder;
+
+// Compares the native JUL console handler with JUL and System.Logger routed through the bridges
+public class LoggingBridgeBenchmark {
+    private static final int CALLS = 100_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        // Both sides write to a discarding stream so only the logging path is measured
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        System.setErr(discard);
+        ConsoleHandler console = new ConsoleHandler();
+        console.setFormatter(new SimpleFormatter());
+
+        Logger root = LoggerFactory.getRootLogger();
+        root.getLoggerOutput().setSingleOutputStream(discard);
+        root.getLoggerOutput().setPattern(LogFormatter.DEFAULT_INFO);
+
+        java.util.logging.Logger nativeLogger = java.util.logging.Logger.getLogger("bench.native");
+        java.util.logging.Logger bridgedLogger = java.util.logging.Logger.getLogger("bench.bridged");
+        System.Logger systemLogger = new ThekoLoggerFinder().getLogger("bench.system", LoggingBridgeBenchmark.class.getModule());
+
+        JulBridgeHandler.install();
+        nativeLogger.setUseParentHandlers(false);
+        nativeLogger.addHandler(console);
+        nativeLogger.setLevel(Level.INFO);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.println("Round " + round + ":");
+            run("JUL console, enabled", () -> nativeLogger.info("Benchmark message"));
+            run("JUL bridge, enabled", () -> bridgedLogger.info("Benchmark message"));
+            run("System.Logger, enabled", () -> systemLogger.log(System.Logger.Level.INFO, "Benchmark message"));
+            run("JUL console, disabled", () -> nativeLogger.fine("Benchmark message"));
+            run("JUL bridge, disabled", () -> bridgedLogger.fine("Benchmark message"));
+            run("System.Logger, disabled", () -> systemLogger.log(System.Logger.Level.DEBUG, "Benchmark message"));
+            LoggerFactory.getLogger("bench.bridged").clearLogs();
+            LoggerFactory.getLogger("bench.system").clearLogs();
+        }
+    }
+
+    private static void run(String name, Runnable call) {
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            call.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("  %-24s %10.1f ns/call%n", name, (double) elapsed / CALLS);
+    }
+}
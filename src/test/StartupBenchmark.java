@@ -0,0 +1,86 @@
+package test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.theko.logger.GlobalLogger;
+import org.theko.logger.LogFormatter;
+import org.theko.logger.LogLevel;
+import org.theko.logger.Logger;
+import org.theko.logger.LoggerFactory;
+import org.theko.logger.LoggerOutput;
+
+// Measures the time to the first log line in fresh JVMs, from process start and from main
+public class StartupBenchmark {
+    private static final int RUNS = 10;
+    private static final String[] MODES = { "global", "factory", "logger", "detailed" };
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 1) {
+            runChild(args[0]);
+            return;
+        }
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String classPath = System.getProperty("java.class.path");
+        for (String mode : MODES) {
+            long[] toFirstLine = new long[RUNS];
+            long[] inMain = new long[RUNS];
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                Process process = new ProcessBuilder(java, "-cp", classPath, StartupBenchmark.class.getName(), mode)
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                    reader.readLine();
+                    toFirstLine[run] = System.nanoTime() - start;
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.startsWith("#main ")) {
+                            inMain[run] = Long.parseLong(line.substring(6));
+                        }
+                    }
+                }
+                process.waitFor();
+            }
+            System.out.printf("%-9s first line after %6.1f ms from process start, %6.2f ms from main (medians of %d)%n",
+                    mode, median(toFirstLine) / 1e6, median(inMain) / 1e6, RUNS);
+        }
+    }
+
+    private static void runChild(String mode) {
+        long start = System.nanoTime();
+        switch (mode) {
+            case "global":
+                GlobalLogger.log(LogLevel.INFO, "First line");
+                break;
+            case "factory":
+                LoggerFactory.getLogger("startup").log(LogLevel.INFO, "First line");
+                break;
+            case "logger": {
+                LoggerOutput output = new LoggerOutput(LogLevel.INFO);
+                output.addOutputStream(System.out);
+                new Logger(output).log(LogLevel.INFO, "First line");
+                break;
+            }
+            default: {
+                LoggerOutput output = new LoggerOutput(LogLevel.INFO);
+                output.setPattern(LogFormatter.DETAILED_INFO);
+                output.addOutputStream(System.out);
+                new Logger(output).log(LogLevel.INFO, "First line");
+                break;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println("#main " + elapsed);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}